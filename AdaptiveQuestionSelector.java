@@ -0,0 +1,384 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 自适应选题：按用户维护每个单词的权重，答错的单词权重翻倍、答对减半，出卷时按权重不放回抽样。
+// 每个用户只保存权重偏离基础权重的单词，其余单词共用基础权重，内存随用户答过的单词数增长而不随词库大小增长；
+// 偏离的单词上建树状数组，抽 k 道题为 O(k log n)，交卷后每题 O(log n)。没有作答记录的用户不分配权重表，直接均匀抽样
+final class AdaptiveQuestionSelector {
+    static final int BASE_WEIGHT = 4;
+    static final int MIN_WEIGHT = 1;
+    static final int MAX_WEIGHT = 64;
+
+    private final WordIndex words;
+    private final Map<String, UserWeights> users = new ConcurrentHashMap<>();
+
+    AdaptiveQuestionSelector(WordIndex words) {
+        this.words = words;
+    }
+
+    // 为用户抽取 k 个互不相同的题目单词
+    List<String> select(String username, int k, SplittableRandom random) {
+        UserWeights weights = users.get(username);
+        int[] ids = weights != null ? weights.sample(k, random) : sampleUniform(words.size(), k, random);
+        List<String> selected = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            selected.add(words.word(id));
+        }
+        return selected;
+    }
+
+    // 用户是否已有作答记录；没有记录的用户按均匀分布出卷，可以直接使用预生成的试卷
+    boolean hasHistory(String username) {
+        return users.containsKey(username);
+    }
+
+    // 根据一次考试结果调整该用户的单词权重
+    void update(ExamSession.Result result) {
+        UserWeights weights = users.computeIfAbsent(result.username, u -> new UserWeights(words.size()));
+        for (ExamSession.Answer answer : result.answers) {
+            int id = words.idOf(answer.word);
+            if (id >= 0) {
+                weights.adjust(id, answer.correct);
+            }
+        }
+    }
+
+    // 换到新版本单词库的单词索引：单词索引未变时原样返回，否则按单词把每个用户的权重搬到新编号上，
+    // 新增的单词取基础权重；已删除单词的权重按单词暂存，单词在之后的版本中重新出现时恢复，
+    // 误删后改回不会丢掉用户的错题记录。重定基期间写入旧选择器的更新不会带到新选择器
+    AdaptiveQuestionSelector rebase(WordIndex newWords) {
+        if (newWords == words) {
+            return this;
+        }
+        AdaptiveQuestionSelector rebased = new AdaptiveQuestionSelector(newWords);
+        users.forEach((username, weights) -> rebased.users.put(username, weights.remap(words, newWords)));
+        return rebased;
+    }
+
+    // 均匀不放回抽样：k 远小于 n 时拒绝采样，否则部分 Fisher–Yates
+    static int[] sampleUniform(int n, int k, SplittableRandom random) {
+        int count = Math.min(k, n);
+        int[] picked = new int[count];
+        if ((long) count * 4 <= n) {
+            int filled = 0;
+            while (filled < count) {
+                int candidate = random.nextInt(n);
+                boolean duplicate = false;
+                for (int i = 0; i < filled && !duplicate; i++) {
+                    duplicate = picked[i] == candidate;
+                }
+                if (!duplicate) {
+                    picked[filled++] = candidate;
+                }
+            }
+            return picked;
+        }
+        int[] pool = new int[n];
+        for (int i = 0; i < n; i++) {
+            pool[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+            picked[i] = pool[i];
+        }
+        return picked;
+    }
+
+    // 单个用户的权重表：所有单词默认为基础权重，偏离基础权重的单词作为条目紧凑存放在 ids / weights 的前 explicit 个位置，
+    // 条目上建树状数组 tree；单词编号到条目的映射是开放寻址散列表（线性探测，-1 表示空槽）。
+    // 权重回到基础权重时移出条目，末尾条目补到空位。偏离的单词超过一半时另建 baseTree，
+    // 按单词编号记录哪些单词仍是基础权重，基础权重的单词所剩不多时也能 O(log n) 抽到
+    private static final class UserWeights {
+        private static final int EMPTY = -1;
+
+        // 单词总数
+        private final int n;
+        // 散列表：单词编号所在槽位存放条目下标
+        private int[] table;
+        private int[] ids;
+        private int[] weights;
+        // 条目权重的树状数组，下标从 1 开始
+        private long[] tree;
+        private int explicit;
+        // 条目权重之和
+        private long explicitTotal;
+        // 基础权重单词的计数树状数组（下标为单词编号加一）；偏离的单词不超过一半时为 null
+        private int[] baseTree;
+        // 当前单词库中已不存在的单词的权重，按单词暂存；没有时为 null
+        private Map<String, Integer> detached;
+
+        UserWeights(int n) {
+            this.n = n;
+            allocate(8);
+        }
+
+        // 按单词把权重搬到另一个单词索引上，只有偏离基础权重的单词和暂存的单词需要查找新编号
+        synchronized UserWeights remap(WordIndex from, WordIndex to) {
+            UserWeights remapped = new UserWeights(to.size());
+            if (detached != null) {
+                detached.forEach((word, weight) -> remapped.restore(to, word, weight));
+            }
+            for (int e = 0; e < explicit; e++) {
+                remapped.restore(to, from.word(ids[e]), weights[e]);
+            }
+            return remapped;
+        }
+
+        private void restore(WordIndex to, String word, int weight) {
+            int target = to.idOf(word);
+            if (target >= 0) {
+                set(target, weight);
+            } else {
+                if (detached == null) {
+                    detached = new HashMap<>();
+                }
+                detached.put(word, weight);
+            }
+        }
+
+        synchronized void adjust(int id, boolean correct) {
+            int entry = table[slotOf(id)];
+            int old = entry == EMPTY ? BASE_WEIGHT : weights[entry];
+            set(id, correct ? Math.max(MIN_WEIGHT, old / 2) : Math.min(MAX_WEIGHT, old * 2));
+        }
+
+        // 按权重不放回抽样：先按（条目权重和 : 其余单词的基础权重和）决定抽条目还是基础权重的单词，
+        // 前者在 tree 上二分，后者均匀抽取。抽中的条目和基础权重单词暂时从各自的树上去掉，抽完后恢复
+        synchronized int[] sample(int k, SplittableRandom random) {
+            int count = Math.min(k, n);
+            int[] picked = new int[count];
+            int[] pickedEntries = new int[count];
+            int entries = 0;
+            long remainingExplicit = explicitTotal;
+            int remainingBase = n - explicit;
+            // 既没有 baseTree、基础权重单词又可能抽到只剩四分之一以下时才顺序数，只发生在单词数不到 4k 的小词库
+            boolean scan = baseTree == null && (long) (remainingBase - count) * 4 < n;
+            for (int i = 0; i < count; i++) {
+                long target = random.nextLong(remainingExplicit + (long) remainingBase * BASE_WEIGHT);
+                if (target < remainingExplicit) {
+                    int entry = find(tree, target);
+                    picked[i] = ids[entry];
+                    pickedEntries[entries++] = entry;
+                    remainingExplicit -= weights[entry];
+                    add(tree, entry, -weights[entry]);
+                } else {
+                    int r = random.nextInt(remainingBase);
+                    int id;
+                    if (baseTree != null) {
+                        id = find(baseTree, r);
+                        addBase(id, -1);
+                    } else if (scan) {
+                        id = scanBase(picked, i, r);
+                    } else {
+                        id = rejectBase(picked, i, random);
+                    }
+                    picked[i] = id;
+                    remainingBase--;
+                }
+            }
+            for (int i = 0; i < entries; i++) {
+                add(tree, pickedEntries[i], weights[pickedEntries[i]]);
+            }
+            if (baseTree != null) {
+                for (int id : picked) {
+                    if (table[slotOf(id)] == EMPTY) {
+                        addBase(id, 1);
+                    }
+                }
+            }
+            return picked;
+        }
+
+        // 拒绝采样：基础权重单词至少占四分之一，期望不超过四次
+        private int rejectBase(int[] picked, int pickedCount, SplittableRandom random) {
+            while (true) {
+                int candidate = random.nextInt(n);
+                if (isBase(candidate, picked, pickedCount)) {
+                    return candidate;
+                }
+            }
+        }
+
+        // 顺序数到第 r 个不是条目、本轮也未抽中的单词
+        private int scanBase(int[] picked, int pickedCount, int r) {
+            for (int id = 0; id < n; id++) {
+                if (isBase(id, picked, pickedCount) && r-- == 0) {
+                    return id;
+                }
+            }
+            throw new IllegalStateException("基础权重单词数不一致");
+        }
+
+        private boolean isBase(int id, int[] picked, int pickedCount) {
+            if (table[slotOf(id)] != EMPTY) {
+                return false;
+            }
+            for (int i = 0; i < pickedCount; i++) {
+                if (picked[i] == id) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void set(int id, int weight) {
+            int slot = slotOf(id);
+            int entry = table[slot];
+            if (entry != EMPTY) {
+                if (weight == BASE_WEIGHT) {
+                    removeEntry(slot);
+                } else {
+                    add(tree, entry, weight - weights[entry]);
+                    explicitTotal += weight - weights[entry];
+                    weights[entry] = weight;
+                }
+            } else if (weight != BASE_WEIGHT) {
+                if (explicit == ids.length) {
+                    allocate(ids.length * 2);
+                    slot = slotOf(id);
+                }
+                entry = explicit++;
+                ids[entry] = id;
+                weights[entry] = weight;
+                table[slot] = entry;
+                add(tree, entry, weight);
+                explicitTotal += weight;
+                if (baseTree != null) {
+                    addBase(id, -1);
+                } else if ((long) explicit * 2 > n) {
+                    buildBaseTree();
+                }
+            }
+        }
+
+        // 移出 slot 上的条目：散列表按线性探测的方式删除，不留墓碑；末尾条目挪到空出的下标
+        private void removeEntry(int slot) {
+            int entry = table[slot];
+            int id = ids[entry];
+            add(tree, entry, -weights[entry]);
+            explicitTotal -= weights[entry];
+            int mask = table.length - 1;
+            table[slot] = EMPTY;
+            for (int next = (slot + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(ids[table[next]]) & mask;
+                // home 不在 (slot, next] 之间时，next 上的元素可以挪到空出的 slot
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    table[slot] = table[next];
+                    table[next] = EMPTY;
+                    slot = next;
+                }
+            }
+            int last = --explicit;
+            if (entry != last) {
+                add(tree, last, -weights[last]);
+                add(tree, entry, weights[last]);
+                ids[entry] = ids[last];
+                weights[entry] = weights[last];
+                table[slotOf(ids[entry])] = entry;
+            }
+            if (baseTree != null) {
+                if ((long) explicit * 4 < n) {
+                    baseTree = null;
+                } else {
+                    addBase(id, 1);
+                }
+            }
+        }
+
+        // 按容量 capacity 重新分配条目数组、散列表和树状数组，搬入现有条目
+        private void allocate(int capacity) {
+            int[] oldIds = ids;
+            int[] oldWeights = weights;
+            ids = Arrays.copyOf(oldIds != null ? oldIds : new int[0], capacity);
+            weights = Arrays.copyOf(oldWeights != null ? oldWeights : new int[0], capacity);
+            table = new int[capacity * 2];
+            Arrays.fill(table, EMPTY);
+            tree = new long[capacity + 1];
+            for (int e = 0; e < explicit; e++) {
+                table[slotOf(ids[e])] = e;
+                tree[e + 1] = weights[e];
+            }
+            for (int i = 1; i <= capacity; i++) {
+                int parent = i + (i & -i);
+                if (parent <= capacity) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+
+        private void buildBaseTree() {
+            int[] built = new int[n + 1];
+            Arrays.fill(built, 1, n + 1, 1);
+            for (int e = 0; e < explicit; e++) {
+                built[ids[e] + 1] = 0;
+            }
+            for (int i = 1; i <= n; i++) {
+                int parent = i + (i & -i);
+                if (parent <= n) {
+                    built[parent] += built[i];
+                }
+            }
+            baseTree = built;
+        }
+
+        private void addBase(int id, int delta) {
+            for (int i = id + 1; i < baseTree.length; i += i & -i) {
+                baseTree[i] += delta;
+            }
+        }
+
+        private static void add(long[] tree, int index, long delta) {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        // 找到前缀和第一次超过 target 的位置（树上二分）
+        private static int find(long[] tree, long target) {
+            int position = 0;
+            for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next < tree.length && tree[next] <= target) {
+                    position = next;
+                    target -= tree[next];
+                }
+            }
+            return position;
+        }
+
+        private static int find(int[] tree, int target) {
+            int position = 0;
+            for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next < tree.length && tree[next] <= target) {
+                    position = next;
+                    target -= tree[next];
+                }
+            }
+            return position;
+        }
+
+        // id 所在的槽位，不存在时为它应插入的空槽
+        private int slotOf(int id) {
+            int mask = table.length - 1;
+            int slot = hash(id) & mask;
+            while (table[slot] != EMPTY && ids[table[slot]] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
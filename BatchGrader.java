@@ -0,0 +1,305 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+// 批量重新评分：单词库更正后，按冻结的单词库重新评判考试日志中保存的全部答卷。
+// 读取线程顺序扫描日志，把未解码的记录放入有界队列；多个评分线程并行解码和评分，
+// 结果行经另一个有界队列交给单独的写线程，写线程按答卷在日志中的顺序写出，输出与线程数无关。
+// 在途答卷数（已读出但尚未写出）不超过 IN_FLIGHT，内存占用与答卷总数无关。
+// 重新评分按选项判定：作答时选中的是否为该单词的释义选项记录在答卷中，释义未更正的单词沿用原判定；
+// 释义已更正的单词，原释义选项已是错误文本，只有选中的选项文本正是更正后的释义才算对。
+// 运行方式：java BatchGrader <考试日志> <单词库快照或文本> <输出文件> [线程数]
+final class BatchGrader {
+    private static final int QUEUE_CAPACITY = 1024;
+    // 在途答卷数上限，也是写线程乱序缓冲的行数上限
+    private static final int IN_FLIGHT = 4 * QUEUE_CAPACITY;
+
+    // 一份答卷及其在日志中的序号
+    private static final class Sheet {
+        final long seq;
+        final byte[] payload;
+
+        Sheet(long seq, byte[] payload) {
+            this.seq = seq;
+            this.payload = payload;
+        }
+    }
+
+    // 一份答卷的结果行；无法解码的答卷 text 为 null，只用来推进写出顺序
+    private static final class Line {
+        final long seq;
+        final String text;
+
+        Line(long seq, String text) {
+            this.seq = seq;
+            this.text = text;
+        }
+    }
+
+    // 队列结束标记
+    private static final Sheet NO_MORE_SHEETS = new Sheet(-1, null);
+    private static final Line NO_MORE_LINES = new Line(-1, null);
+
+    // 汇总结果
+    static final class Summary {
+        final LongAdder sheets = new LongAdder();
+        final LongAdder changed = new LongAdder();
+        final LongAdder raised = new LongAdder();
+        final LongAdder lowered = new LongAdder();
+        final LongAdder corrupt = new LongAdder();
+        final LongAdder oldTotal = new LongAdder();
+        final LongAdder newTotal = new LongAdder();
+
+        @Override
+        public String toString() {
+            long n = sheets.sum();
+            return String.format("答卷 %d 份，分数变化 %d 份（提高 %d，降低 %d），无法解码 %d 份，平均分 %.2f -> %.2f",
+                    n, changed.sum(), raised.sum(), lowered.sum(), corrupt.sum(),
+                    n == 0 ? 0.0 : (double) oldTotal.sum() / n, n == 0 ? 0.0 : (double) newTotal.sum() / n);
+        }
+    }
+
+    private BatchGrader() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("用法: java BatchGrader <考试日志> <单词库快照或文本> <输出文件> [线程数]");
+            System.exit(2);
+        }
+        Path library = Paths.get(args[1]);
+        Map<String, String> wordLibrary = library.getFileName().toString().endsWith(".snapshot")
+                ? WordLibrarySnapshot.open(library).asMap()
+                : CompactWordLibrary.of(WordLibraryParser.parse(library)).asMap();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long started = System.nanoTime();
+        Summary summary = grade(Paths.get(args[0]), wordLibrary, Paths.get(args[2]), threads);
+        System.out.printf("%s，耗时 %d ms%n", summary, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // 按 wordLibrary 重新评分 journal 中的全部答卷，逐份写出新旧分数，末尾附汇总；
+    // wordLibrary 在评分期间不能被修改
+    static Summary grade(Path journal, Map<String, String> wordLibrary, Path output, int threads) throws IOException {
+        int workers = Math.max(1, threads);
+        BlockingQueue<Sheet> sheets = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Line> lines = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        // 读线程每读出一份答卷取一个许可，写线程按顺序处理完一行归还一个
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        Summary summary = new Summary();
+
+        Thread[] graders = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            graders[i] = new Thread(() -> gradeLoop(sheets, lines, wordLibrary, summary), "batch-grader-" + i);
+            graders[i].start();
+        }
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        IOException[] writeError = new IOException[1];
+        Thread writer = new Thread(() -> {
+            try {
+                writeLoop(lines, workers, temp, inFlight);
+            } catch (IOException e) {
+                writeError[0] = e;
+            }
+        }, "batch-grader-writer");
+        writer.start();
+
+        try {
+            long[] seq = new long[1];
+            ExamJournal.scan(journal, payload -> {
+                acquire(inFlight);
+                put(sheets, new Sheet(seq[0]++, payload));
+            });
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                putUninterruptibly(sheets, NO_MORE_SHEETS);
+            }
+            joinUninterruptibly(graders);
+            joinUninterruptibly(writer);
+        }
+        if (writeError[0] != null) {
+            throw writeError[0];
+        }
+        try (Writer trailer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            trailer.write("# " + summary + "\n");
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return summary;
+    }
+
+    private static void gradeLoop(BlockingQueue<Sheet> sheets, BlockingQueue<Line> lines,
+                                  Map<String, String> wordLibrary, Summary summary) {
+        try {
+            while (true) {
+                Sheet sheet = sheets.take();
+                if (sheet == NO_MORE_SHEETS) {
+                    break;
+                }
+                ExamSession.Result result;
+                int correct = 0;
+                try {
+                    result = ExamJournal.decode(sheet.payload);
+                    for (ExamSession.Answer answer : result.answers) {
+                        if (regrade(answer, wordLibrary.get(answer.word))) {
+                            correct++;
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    summary.corrupt.increment();
+                    lines.put(new Line(sheet.seq, null));
+                    continue;
+                }
+                int oldScore = result.score();
+                int newScore = correct * 10;
+                summary.sheets.increment();
+                summary.oldTotal.add(oldScore);
+                summary.newTotal.add(newScore);
+                if (newScore != oldScore) {
+                    summary.changed.increment();
+                    (newScore > oldScore ? summary.raised : summary.lowered).increment();
+                }
+                lines.put(new Line(sheet.seq, result.username + ',' + result.startedAtMillis + ','
+                        + result.finishedAtMillis + ',' + oldScore + ',' + newScore + '\n'));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putUninterruptibly(lines, NO_MORE_LINES);
+        }
+    }
+
+    // 按更正后的释义 corrected 重新评判一题；单词已从单词库删除时 corrected 为 null
+    static boolean regrade(ExamSession.Answer answer, String corrected) {
+        if (corrected == null || corrected.equals(answer.correctMeaning)) {
+            return answer.correct;
+        }
+        return answer.userAnswer != null && answer.userAnswer.equals(corrected);
+    }
+
+    // 按答卷序号写出所有结果行，先到的行暂存到前面的行到齐；写文件出错后继续取空队列并归还许可，
+    // 避免读线程和评分线程阻塞，最后再抛出错误
+    private static void writeLoop(BlockingQueue<Line> lines, int producers, Path file, Semaphore inFlight)
+            throws IOException {
+        IOException failure = null;
+        BufferedWriter out = null;
+        try {
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            out.write("username,startedAt,finishedAt,oldScore,newScore\n");
+        } catch (IOException e) {
+            failure = e;
+        }
+        Map<Long, Line> early = new HashMap<>();
+        long next = 0;
+        int finished = 0;
+        while (finished < producers) {
+            Line line = takeUninterruptibly(lines);
+            if (line == NO_MORE_LINES) {
+                finished++;
+                continue;
+            }
+            early.put(line.seq, line);
+            while ((line = early.remove(next)) != null) {
+                next++;
+                inFlight.release();
+                if (failure == null && line.text != null) {
+                    try {
+                        out.write(line.text);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T item) throws IOException {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量评分被中断");
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量评分被中断");
+        }
+    }
+
+    private static <T> T takeUninterruptibly(BlockingQueue<T> queue) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static <T> void putUninterruptibly(BlockingQueue<T> queue, T item) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinUninterruptibly(Thread... threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,581 @@
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// 紧凑的内存单词库：快照不可用时代替 HashMap 保存单词库，堆占用只有后者的几分之一。
+//   单词按 UTF-8 字节序排序后前缀编码：每 BLOCK_SIZE 个单词一块，块首存完整单词，
+//   其余只存与前一个单词的公共前缀长度和剩余字节；英文单词在 UTF-8 下每个字符只占一个字节
+//   释义按“；”切成片段，相同片段只存一份，释义保存为片段编号序列，完全相同的释义也只存一份
+// 所有数据放在少数几个 byte[] / int[] 中，没有逐条的 String 和 Map.Entry 对象。
+// 按单词查编号时逐字符现编码查询串、与存储的字节直接比较，按释义查编号时把存储的字节解码成码点与查询串比较，
+// 都不分配对象、不依赖线程私有缓冲区（每个请求一个虚拟线程时线程私有缓冲区每次都要新建）；只有取出 String 时才解码
+final class CompactWordLibrary {
+    private static final int BLOCK_SIZE = 16;
+    private static final String SEPARATOR = "；";
+    private static final char SEPARATOR_CHAR = SEPARATOR.charAt(0);
+    // 查询串游标中字符下标占 24 位，更长的查询串不可能在单词库中
+    private static final int MAX_KEY_CHARS = 0xFFFFFF;
+    // 游标到达查询串末尾
+    private static final int END = -1;
+
+    private final int wordCount;
+    // 最长单词的 UTF-8 字节数，解码单词时按它分配缓冲区
+    private final int maxWordBytes;
+    // 前缀编码的单词块及每块的起始位置
+    private final byte[] wordBlob;
+    private final int[] blockOffsets;
+    // 每个单词（按排序位置）对应的释义编号
+    private final int[] wordMeanings;
+    // 去重后的释义片段：UTF-8 字节及其偏移
+    private final byte[] segmentBlob;
+    private final int[] segmentOffsets;
+    // 去重后的释义（按 UTF-8 字节序排序）：片段编号序列及每个释义的起止位置
+    private final int[] meaningSegments;
+    private final int[] meaningStarts;
+
+    private CompactWordLibrary(int wordCount, int maxWordBytes, byte[] wordBlob, int[] blockOffsets, int[] wordMeanings,
+                               byte[] segmentBlob, int[] segmentOffsets, int[] meaningSegments, int[] meaningStarts) {
+        this.wordCount = wordCount;
+        this.maxWordBytes = maxWordBytes;
+        this.wordBlob = wordBlob;
+        this.blockOffsets = blockOffsets;
+        this.wordMeanings = wordMeanings;
+        this.segmentBlob = segmentBlob;
+        this.segmentOffsets = segmentOffsets;
+        this.meaningSegments = meaningSegments;
+        this.meaningStarts = meaningStarts;
+    }
+
+    // 由内存单词表构建，构建完成后原单词表即可丢弃
+    static CompactWordLibrary of(Map<String, String> wordLibrary) {
+        int n = wordLibrary.size();
+        byte[][] words = new byte[n][];
+        String[] wordMeaningText = new String[n];
+        int i = 0;
+        for (Map.Entry<String, String> entry : wordLibrary.entrySet()) {
+            words[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            wordMeaningText[i] = entry.getValue();
+            i++;
+        }
+        Integer[] order = new Integer[n];
+        for (i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(words[a], words[b]));
+
+        // 不同释义按 UTF-8 字节序排序后编号，便于按释义二分查找
+        Map<String, byte[]> distinct = new HashMap<>();
+        for (String meaning : wordMeaningText) {
+            distinct.computeIfAbsent(meaning, m -> m.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] meanings = distinct.keySet().toArray(new String[0]);
+        Arrays.sort(meanings, (a, b) -> Arrays.compareUnsigned(distinct.get(a), distinct.get(b)));
+        Map<String, Integer> meaningIds = new HashMap<>(meanings.length * 4 / 3 + 1);
+        for (i = 0; i < meanings.length; i++) {
+            meaningIds.put(meanings[i], i);
+        }
+
+        // 释义切成片段，片段去重
+        Map<String, Integer> segmentIds = new HashMap<>();
+        ByteSink segmentBytes = new ByteSink();
+        int[] segmentOffsets = new int[16];
+        int[] meaningStarts = new int[meanings.length + 1];
+        int[] meaningSegments = new int[meanings.length * 2];
+        int segmentTotal = 0;
+        for (i = 0; i < meanings.length; i++) {
+            meaningStarts[i] = segmentTotal;
+            for (String segment : meanings[i].split(SEPARATOR, -1)) {
+                Integer id = segmentIds.get(segment);
+                if (id == null) {
+                    id = segmentIds.size();
+                    segmentIds.put(segment, id);
+                    if (id + 1 >= segmentOffsets.length) {
+                        segmentOffsets = Arrays.copyOf(segmentOffsets, segmentOffsets.length * 2);
+                    }
+                    segmentOffsets[id] = segmentBytes.size();
+                    segmentBytes.write(segment.getBytes(StandardCharsets.UTF_8));
+                    segmentOffsets[id + 1] = segmentBytes.size();
+                }
+                if (segmentTotal == meaningSegments.length) {
+                    meaningSegments = Arrays.copyOf(meaningSegments, segmentTotal * 2 + 1);
+                }
+                meaningSegments[segmentTotal++] = id;
+            }
+        }
+        meaningStarts[meanings.length] = segmentTotal;
+
+        // 单词前缀编码
+        ByteSink wordBytes = new ByteSink();
+        int[] blockOffsets = new int[(n + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        int[] wordMeanings = new int[n];
+        int maxWordBytes = 0;
+        byte[] previous = null;
+        for (i = 0; i < n; i++) {
+            byte[] word = words[order[i]];
+            maxWordBytes = Math.max(maxWordBytes, word.length);
+            wordMeanings[i] = meaningIds.get(wordMeaningText[order[i]]);
+            if (i % BLOCK_SIZE == 0) {
+                blockOffsets[i / BLOCK_SIZE] = wordBytes.size();
+                wordBytes.writeVarint(word.length);
+                wordBytes.write(word, 0, word.length);
+            } else {
+                int shared = commonPrefix(previous, 0, previous.length, word, word.length);
+                wordBytes.writeVarint(shared);
+                wordBytes.writeVarint(word.length - shared);
+                wordBytes.write(word, shared, word.length - shared);
+            }
+            previous = word;
+        }
+
+        return new CompactWordLibrary(n, maxWordBytes, wordBytes.toArray(), blockOffsets, wordMeanings,
+                segmentBytes.toArray(), Arrays.copyOf(segmentOffsets, segmentIds.size() + 1),
+                Arrays.copyOf(meaningSegments, segmentTotal), meaningStarts);
+    }
+
+    int size() {
+        return wordCount;
+    }
+
+    // 不同释义的数量
+    int meaningCount() {
+        return meaningStarts.length - 1;
+    }
+
+    // 按编号取单词（编号即排序后的位置）
+    String word(int id) {
+        byte[] buffer = new byte[maxWordBytes];
+        int length = 0;
+        int position = blockOffsets[id / BLOCK_SIZE];
+        for (int i = id - id % BLOCK_SIZE; i <= id; i++) {
+            int shared;
+            int suffix;
+            if (i % BLOCK_SIZE == 0) {
+                shared = 0;
+                suffix = readVarint(position);
+                position += varintLength(suffix);
+            } else {
+                shared = readVarint(position);
+                position += varintLength(shared);
+                suffix = readVarint(position);
+                position += varintLength(suffix);
+            }
+            System.arraycopy(wordBlob, position, buffer, shared, suffix);
+            position += suffix;
+            length = shared + suffix;
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // 查找单词编号，不存在时返回 -1；不分配对象
+    int idOf(String word) {
+        if (word.length() > MAX_KEY_CHARS) {
+            return -1;
+        }
+        // 二分查找最后一个块首不大于 word 的块
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int block = -1;
+        int matched = 0;
+        // 指向 word 的 UTF-8 编码第 matched 个字节的游标
+        long matchedKey = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = blockOffsets[mid];
+            int length = readVarint(position);
+            position += varintLength(length);
+            long key = cursor(word);
+            int common = 0;
+            while (common < length && current(key) == Byte.toUnsignedInt(wordBlob[position + common])) {
+                key = advance(word, key);
+                common++;
+            }
+            int next = current(key);
+            int cmp = common < length
+                    ? (next == END ? 1 : Byte.toUnsignedInt(wordBlob[position + common]) - next)
+                    : (next == END ? 0 : -1);
+            if (cmp == 0) {
+                return mid * BLOCK_SIZE;
+            }
+            if (cmp < 0) {
+                block = mid;
+                matched = common;
+                matchedKey = key;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return -1;
+        }
+
+        // 块内顺序扫描：matched 为前一个单词与 word 的公共前缀长度，前一个单词总小于 word
+        int position = blockOffsets[block];
+        int headLength = readVarint(position);
+        position += varintLength(headLength) + headLength;
+        int end = Math.min(wordCount, (block + 1) * BLOCK_SIZE);
+        for (int id = block * BLOCK_SIZE + 1; id < end; id++) {
+            int shared = readVarint(position);
+            position += varintLength(shared);
+            int suffix = readVarint(position);
+            position += varintLength(suffix);
+            if (shared < matched) {
+                // 在 key 与前一个单词相同的位置上变大了，之后的单词都大于 key
+                return -1;
+            }
+            if (shared == matched) {
+                long key = matchedKey;
+                int common = 0;
+                while (common < suffix && current(key) == Byte.toUnsignedInt(wordBlob[position + common])) {
+                    key = advance(word, key);
+                    common++;
+                }
+                int next = current(key);
+                if (common == suffix && next == END) {
+                    return id;
+                }
+                if (common < suffix && (next == END || Byte.toUnsignedInt(wordBlob[position + common]) > next)) {
+                    return -1;
+                }
+                matched += common;
+                matchedKey = key;
+            }
+            // shared > matched：与前一个单词在第 matched 字节上同样小于 word
+            position += suffix;
+        }
+        return -1;
+    }
+
+    // 单词对应的释义编号
+    int meaningIdOf(int wordId) {
+        return wordMeanings[wordId];
+    }
+
+    // 按编号取释义：由片段拼接而成
+    String meaning(int meaningId) {
+        int start = meaningStarts[meaningId];
+        int end = meaningStarts[meaningId + 1];
+        StringBuilder meaning = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                meaning.append(SEPARATOR);
+            }
+            int segment = meaningSegments[i];
+            int from = segmentOffsets[segment];
+            meaning.append(new String(segmentBlob, from, segmentOffsets[segment + 1] - from, StandardCharsets.UTF_8));
+        }
+        return meaning.toString();
+    }
+
+    // 查找释义编号，不存在时返回 -1；不分配对象
+    int meaningIdOf(String meaning) {
+        int low = 0;
+        int high = meaningCount() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareMeaning(mid, meaning);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // 单词表的只读 Map 视图，get/containsKey 走前缀编码块上的二分查找，遍历时逐条解码
+    Map<String, String> asMap() {
+        return new CompactMap();
+    }
+
+    WordIndex wordIndex() {
+        return new WordIndex() {
+            @Override
+            public int size() {
+                return wordCount;
+            }
+
+            @Override
+            public String word(int id) {
+                return CompactWordLibrary.this.word(id);
+            }
+
+            @Override
+            public int idOf(String word) {
+                return CompactWordLibrary.this.idOf(word);
+            }
+        };
+    }
+
+    MeaningIndex meaningIndex() {
+        return new MeaningIndex() {
+            @Override
+            public int size() {
+                return meaningCount();
+            }
+
+            @Override
+            public String meaning(int id) {
+                return CompactWordLibrary.this.meaning(id);
+            }
+
+            @Override
+            public int idOf(String meaning) {
+                return meaningIdOf(meaning);
+            }
+        };
+    }
+
+    // 比较第 meaningId 个释义（片段以分隔符相连）与 key，结果与按无符号字节序比较两者的 UTF-8 编码同号。
+    // UTF-8 的字节序就是码点序，所以逐个码点比较：存储的字节解码成码点，key 的代理对合成码点，落单的代理字符按 '?'
+    private int compareMeaning(int meaningId, String key) {
+        int k = 0;
+        int keyLength = key.length();
+        int start = meaningStarts[meaningId];
+        int end = meaningStarts[meaningId + 1];
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                if (k == keyLength) {
+                    return 1;
+                }
+                // 分隔符是单个基本平面字符
+                char c = key.charAt(k++);
+                int cmp = SEPARATOR_CHAR - (Character.isSurrogate(c) ? codePointAfter(key, c, k) : c);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            int segment = meaningSegments[i];
+            int p = segmentOffsets[segment];
+            int limit = segmentOffsets[segment + 1];
+            while (p < limit) {
+                if (k == keyLength) {
+                    return 1;
+                }
+                int b = segmentBlob[p];
+                int stored;
+                if (b >= 0) {
+                    stored = b;
+                    p++;
+                } else if ((b & 0xE0) == 0xC0) {
+                    stored = (b & 0x1F) << 6 | segmentBlob[p + 1] & 0x3F;
+                    p += 2;
+                } else if ((b & 0xF0) == 0xE0) {
+                    stored = (b & 0x0F) << 12 | (segmentBlob[p + 1] & 0x3F) << 6 | segmentBlob[p + 2] & 0x3F;
+                    p += 3;
+                } else {
+                    stored = (b & 0x07) << 18 | (segmentBlob[p + 1] & 0x3F) << 12
+                            | (segmentBlob[p + 2] & 0x3F) << 6 | segmentBlob[p + 3] & 0x3F;
+                    p += 4;
+                }
+                char c = key.charAt(k++);
+                int wanted = c;
+                if (Character.isSurrogate(c)) {
+                    wanted = codePointAfter(key, c, k);
+                    if (wanted > Character.MAX_VALUE) {
+                        k++;
+                    }
+                }
+                if (stored != wanted) {
+                    return stored - wanted;
+                }
+            }
+        }
+        return k == keyLength ? 0 : -1;
+    }
+
+    // key 中下标 k - 1 处的代理字符 c 所代表的码点：与下一个字符成对时为补充平面码点，落单时按 String.getBytes 的做法当作 '?'
+    private static int codePointAfter(String key, char c, int k) {
+        if (Character.isHighSurrogate(c) && k < key.length() && Character.isLowSurrogate(key.charAt(k))) {
+            return Character.toCodePoint(c, key.charAt(k));
+        }
+        return '?';
+    }
+
+    // 查询串的 UTF-8 字节游标：逐字符现编码，与 String.getBytes(UTF_8) 的结果一致（落单的代理字符编码为 '?'）。
+    // 游标是一个 long，从低位起依次为：下一个待编码字符的下标（24 位）、当前字符尚未取出的字节数（2 位）、
+    // 这些字节（24 位）、当前字节加一（9 位，0 表示已到末尾）
+    private static long cursor(String key) {
+        return advance(key, 0L);
+    }
+
+    // 游标所指的字节（0..255），已到末尾时为 END
+    private static int current(long cursor) {
+        return (int) (cursor >>> 50) - 1;
+    }
+
+    // 游标前进一个字节；ASCII 字符走短路径，方法体小到能被内联
+    private static long advance(String key, long cursor) {
+        int index = (int) (cursor & 0xFFFFFF);
+        if ((cursor & 3L << 24) == 0 && index < key.length()) {
+            char c = key.charAt(index);
+            if (c < 0x80) {
+                return index + 1 | (long) (c + 1) << 50;
+            }
+        }
+        return advanceSlow(key, cursor);
+    }
+
+    // 取出当前字符剩余的字节，或编码下一个多字节字符，或到达末尾
+    private static long advanceSlow(String key, long cursor) {
+        int index = (int) (cursor & 0xFFFFFF);
+        int pending = (int) (cursor >>> 24) & 3;
+        int bytes = (int) (cursor >>> 26) & 0xFFFFFF;
+        int current;
+        if (pending > 0) {
+            current = bytes & 0xFF;
+            bytes >>>= 8;
+            pending--;
+        } else if (index >= key.length()) {
+            current = END;
+        } else {
+            char c = key.charAt(index++);
+            if (c < 0x800) {
+                current = 0xC0 | c >> 6;
+                bytes = 0x80 | c & 0x3F;
+                pending = 1;
+            } else if (Character.isHighSurrogate(c) && index < key.length() && Character.isLowSurrogate(key.charAt(index))) {
+                int codePoint = Character.toCodePoint(c, key.charAt(index++));
+                current = 0xF0 | codePoint >> 18;
+                bytes = (0x80 | codePoint >> 12 & 0x3F) | (0x80 | codePoint >> 6 & 0x3F) << 8 | (0x80 | codePoint & 0x3F) << 16;
+                pending = 3;
+            } else if (Character.isSurrogate(c)) {
+                current = '?';
+            } else {
+                current = 0xE0 | c >> 12;
+                bytes = (0x80 | c >> 6 & 0x3F) | (0x80 | c & 0x3F) << 8;
+                pending = 2;
+            }
+        }
+        return index | (long) pending << 24 | (long) bytes << 26 | (long) (current + 1) << 50;
+    }
+
+    // a[from, from + length) 与 key[0, keyLength) 的公共前缀长度
+    private static int commonPrefix(byte[] a, int from, int length, byte[] key, int keyLength) {
+        int limit = Math.min(length, keyLength);
+        int i = 0;
+        while (i < limit && a[from + i] == key[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private int readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = wordBlob[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    // 构建时使用的可增长字节缓冲区
+    private static final class ByteSink {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void write(byte[] data) {
+            write(data, 0, data.length);
+        }
+
+        void write(byte[] data, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(data, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarint(int value) {
+            ensureCapacity(size + 5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+    }
+
+    private final class CompactMap extends AbstractMap<String, String> {
+        @Override
+        public int size() {
+            return wordCount;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && idOf((String) key) >= 0;
+        }
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int id = idOf((String) key);
+            return id < 0 ? null : meaning(wordMeanings[id]);
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public int size() {
+                    return wordCount;
+                }
+
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < wordCount;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (next >= wordCount) {
+                                throw new NoSuchElementException();
+                            }
+                            int id = next++;
+                            return new SimpleImmutableEntry<>(word(id), meaning(wordMeanings[id]));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
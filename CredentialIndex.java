@@ -0,0 +1,197 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// 用户凭据索引：启动时读取一次用户信息文件，只在内存中保存加盐哈希，
+// 文件变化时由 WatchService 后台线程增量刷新，登录校验不再访问磁盘。
+// 与单词库一样，监听线程等文件安静下来后才刷新，文件大小和修改时间没变时不重新读取，
+// 读到空文件（编辑器保存时先截断）或读取期间文件又被改写时保留当前索引
+final class CredentialIndex {
+    private static final int SALT_BYTES = 16;
+    // 最后一个文件事件之后等待这么久没有新事件才刷新
+    private static final long DEBOUNCE_MILLIS = 300;
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // 单个用户的盐和哈希
+    private static final class Credential {
+        final byte[] salt;
+        final byte[] hash;
+
+        Credential(byte[] salt, byte[] hash) {
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Credential> credentials = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    // 用户不存在时也做一次哈希比较，避免通过耗时差异判断用户名是否存在
+    private final Credential dummy;
+    private Thread watcher;
+    // 当前索引读取时文件的大小和修改时间，由 this 保护；未知时为 null
+    private String loadedStamp;
+
+    private CredentialIndex(Path file) {
+        this.file = file;
+        byte[] salt = newSalt();
+        this.dummy = new Credential(salt, hash(salt, ""));
+    }
+
+    // 加载用户信息文件，读取失败时得到一个空索引（与原先的行为一致）
+    static CredentialIndex load(Path file) {
+        CredentialIndex index = new CredentialIndex(file);
+        index.reload();
+        return index;
+    }
+
+    // 校验用户名和密码：O(1) 查表 + 常量时间比较
+    boolean verify(String username, String password) {
+        Credential credential = credentials.get(username);
+        Credential expected = credential != null ? credential : dummy;
+        boolean matches = MessageDigest.isEqual(expected.hash, hash(expected.salt, password));
+        return credential != null && matches;
+    }
+
+    int size() {
+        return credentials.size();
+    }
+
+    // 重新读取文件并与当前索引比对：未变化的用户保留原有盐和哈希，删除的用户移出索引
+    synchronized void reload() {
+        String stamp = stampOf(file);
+        if (stamp != null && stamp.equals(loadedStamp)) {
+            return;
+        }
+        Map<String, String> latest = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 2) {
+                    latest.put(parts[0].trim(), parts[1].trim());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("加载用户信息文件失败: " + e.getMessage());
+            return;
+        }
+        if (stamp == null || !stamp.equals(stampOf(file))) {
+            // 读取期间文件又被改写，读到的可能是半个文件；改写会再产生文件事件，到时重新读取
+            return;
+        }
+        if (latest.isEmpty()) {
+            // 编辑器保存时可能先截断文件，空文件不生效，否则所有用户都会被拒之门外
+            return;
+        }
+        loadedStamp = stamp;
+
+        for (Map.Entry<String, String> entry : latest.entrySet()) {
+            Credential current = credentials.get(entry.getKey());
+            if (current == null || !MessageDigest.isEqual(current.hash, hash(current.salt, entry.getValue()))) {
+                byte[] salt = newSalt();
+                credentials.put(entry.getKey(), new Credential(salt, hash(salt, entry.getValue())));
+            }
+        }
+        credentials.keySet().retainAll(latest.keySet());
+    }
+
+    // 文件的大小和修改时间，文件不存在或读取失败时为 null
+    private static String stampOf(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // 启动后台守护线程监听用户信息文件所在目录，文件被修改或重新创建时刷新索引
+    synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        Path absolute = file.toAbsolutePath();
+        Path directory = absolute.getParent();
+        Path fileName = absolute.getFileName();
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("无法监听用户信息文件: " + e.getMessage());
+            return;
+        }
+
+        watcher = new Thread(() -> {
+            try (WatchService service = watchService) {
+                boolean pending = false;
+                while (true) {
+                    // 有待处理的变化时只等一个去抖间隔，间隔内没有新事件就刷新
+                    WatchKey key = pending ? service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS) : service.take();
+                    if (key == null) {
+                        pending = false;
+                        try {
+                            reload();
+                        } catch (RuntimeException e) {
+                            // 监听线程不能因为一次刷新失败而退出
+                            System.err.println("刷新用户信息失败，继续使用当前索引: " + e);
+                        }
+                        continue;
+                    }
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (fileName.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            pending = true;
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("用户信息文件监听异常: " + e.getMessage());
+            }
+        }, "credential-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private byte[] newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return salt;
+    }
+
+    private static byte[] hash(byte[] salt, String password) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(salt);
+        return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+}
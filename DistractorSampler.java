@@ -0,0 +1,127 @@
+import java.util.SplittableRandom;
+
+// 干扰项抽样器：在释义索引上按整数下标抽取 k 个互不相同的干扰项，
+// 每次抽样只做 O(k) 的工作，不复制、不打乱整个单词库。
+// 给定近邻表时优先从正确释义的近邻中随机取“难”干扰项，不足的部分再均匀抽样
+final class DistractorSampler {
+    // 可选释义不足 k 的这么多倍时，改用部分 Fisher–Yates，避免拒绝采样反复碰撞
+    private static final int REJECTION_FACTOR = 4;
+
+    private final MeaningIndex index;
+    private final HardDistractorTable hard;
+    private final SplittableRandom random;
+    private final int[] picked;
+    // 从近邻表取干扰项时的候选缓冲区
+    private final int[] candidates;
+    // 部分 Fisher–Yates 用的下标池，仅在小词库时按需创建一次
+    private int[] pool;
+
+    DistractorSampler(MeaningIndex index, SplittableRandom random, int distractorCount) {
+        this(index, null, random, distractorCount);
+    }
+
+    // hard 为 null 或与 index 不匹配时只做均匀抽样
+    DistractorSampler(MeaningIndex index, HardDistractorTable hard, SplittableRandom random, int distractorCount) {
+        this.index = index;
+        this.hard = hard != null && hard.size() == index.size() ? hard : null;
+        this.random = random;
+        this.picked = new int[distractorCount];
+        this.candidates = new int[this.hard != null ? this.hard.k() : 0];
+    }
+
+    // 把正确释义和干扰项随机排列后写入 options，返回正确答案所在位置；
+    // 可用干扰项不足时只填充前面的位置，其余保持 null
+    int fillOptions(String correctMeaning, String[] options) {
+        int correctId = index.idOf(correctMeaning);
+        int available = index.size() - (correctId >= 0 ? 1 : 0);
+        int k = Math.min(Math.min(picked.length, options.length - 1), Math.max(available, 0));
+
+        int count = hard != null && correctId >= 0 ? pickNeighbors(correctId, k) : 0;
+        if (count < k) {
+            if (available >= k * REJECTION_FACTOR) {
+                sampleByRejection(correctId, count, k);
+            } else {
+                sampleByPartialShuffle(correctId, count, k);
+            }
+        }
+
+        // 正确答案放在随机位置，其余位置依次放入干扰项
+        int filled = k + 1;
+        int correctPos = random.nextInt(filled);
+        int next = 0;
+        for (int i = 0; i < filled; i++) {
+            options[i] = i == correctPos ? correctMeaning : index.meaning(picked[next++]);
+        }
+        for (int i = filled; i < options.length; i++) {
+            options[i] = null;
+        }
+        return correctPos;
+    }
+
+    // 从近邻表中随机取至多 k 个近邻作为干扰项，返回取到的个数
+    private int pickNeighbors(int correctId, int k) {
+        int found = 0;
+        while (found < candidates.length && hard.neighbor(correctId, found) >= 0) {
+            candidates[found] = hard.neighbor(correctId, found);
+            found++;
+        }
+        int count = Math.min(k, found);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(found - i);
+            int tmp = candidates[i];
+            candidates[i] = candidates[j];
+            candidates[j] = tmp;
+            picked[i] = candidates[i];
+        }
+        return count;
+    }
+
+    // 拒绝采样：词库远大于 k 时，期望 O(k) 次随机数即可抽满；picked 的前 count 个已占用
+    private void sampleByRejection(int excludedId, int count, int k) {
+        int n = index.size();
+        while (count < k) {
+            int candidate = random.nextInt(n);
+            if (candidate == excludedId || contains(picked, count, candidate)) {
+                continue;
+            }
+            picked[count++] = candidate;
+        }
+    }
+
+    // 部分 Fisher–Yates：只交换到抽满为止，跳过 picked 中已占用的前 count 个
+    private void sampleByPartialShuffle(int excludedId, int count, int k) {
+        int n = index.size();
+        if (pool == null || pool.length != n) {
+            pool = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            pool[i] = i;
+        }
+        int limit = n;
+        if (excludedId >= 0) {
+            // 把正确答案换到末尾并排除在抽样范围外
+            pool[excludedId] = n - 1;
+            pool[n - 1] = excludedId;
+            limit = n - 1;
+        }
+        int taken = count;
+        for (int i = 0; i < limit && count < k; i++) {
+            int j = i + random.nextInt(limit - i);
+            int tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+            if (!contains(picked, taken, pool[i])) {
+                picked[count++] = pool[i];
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.TimeUnit;
+
+// EDT 卡顿监视：替换系统事件队列，为每个事件的分发计时。
+// 超过阈值的事件在分发结束后记录耗时；仍在执行时由监视线程抓取一次 EDT 的调用栈，便于定位卡在哪里。
+// 模态对话框等嵌套事件循环期间，外层事件不计为卡顿（内层事件各自计时）
+final class EdtWatchdog extends EventQueue {
+    private static final int MAX_DEPTH = 64;
+    private static final Metrics.Histogram DISPATCH_TIME = Metrics.histogram("edt.dispatch");
+    private static final Metrics.Counter STALLS = Metrics.counter("edt.stalls");
+
+    private final long thresholdNanos;
+    // 以下数组只在 EDT 上访问：每层嵌套分发的开始时间、是否运行过嵌套事件循环
+    private final long[] starts = new long[MAX_DEPTH];
+    private final boolean[] nested = new boolean[MAX_DEPTH];
+    private int depth;
+    // 发布给监视线程的最内层分发状态
+    private volatile long currentStart;
+    private volatile boolean currentNested;
+    private volatile long currentSerial;
+    private long serial;
+    private volatile Thread edt;
+
+    private EdtWatchdog(long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    // 安装到系统事件队列并启动监视线程
+    static void install(long threshold, TimeUnit unit) {
+        EdtWatchdog watchdog = new EdtWatchdog(unit.toNanos(threshold));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        Thread monitor = new Thread(watchdog::monitor, "edt-watchdog");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        if (depth > 0 && depth <= MAX_DEPTH) {
+            nested[depth - 1] = true;
+        }
+        edt = Thread.currentThread();
+        long start = System.nanoTime();
+        int level = depth++;
+        if (level < MAX_DEPTH) {
+            starts[level] = start;
+            nested[level] = false;
+        }
+        publish(start, false);
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            depth--;
+            long elapsed = System.nanoTime() - start;
+            boolean ranNestedLoop = level < MAX_DEPTH && nested[level];
+            if (!ranNestedLoop) {
+                DISPATCH_TIME.record(elapsed);
+                if (elapsed > thresholdNanos) {
+                    STALLS.increment();
+                    System.err.printf("EDT 卡顿 %d ms: %s%n", TimeUnit.NANOSECONDS.toMillis(elapsed), describe(event));
+                }
+            }
+            // 回到外层分发，外层已经运行过嵌套事件循环
+            if (level > 0 && level <= MAX_DEPTH) {
+                publish(starts[level - 1], true);
+            } else {
+                publish(0, false);
+            }
+        }
+    }
+
+    private void publish(long start, boolean inNestedLoop) {
+        currentNested = inNestedLoop;
+        currentStart = start;
+        currentSerial = ++serial;
+    }
+
+    // 每隔阈值的一半检查一次，同一次分发只抓取一次调用栈
+    private void monitor() {
+        long reported = -1;
+        long interval = Math.max(1, TimeUnit.NANOSECONDS.toMillis(thresholdNanos) / 2);
+        while (true) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long observed = currentSerial;
+            long start = currentStart;
+            Thread thread = edt;
+            // EDT 处于等待状态说明在模态对话框的事件循环里空闲等待，不算卡顿
+            if (start == 0 || currentNested || thread == null || observed == reported
+                    || thread.getState() != Thread.State.RUNNABLE) {
+                continue;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > thresholdNanos && observed == currentSerial) {
+                reported = observed;
+                StringBuilder trace = new StringBuilder("EDT 已阻塞 ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(elapsed)).append(" ms，当前调用栈：");
+                for (StackTraceElement frame : thread.getStackTrace()) {
+                    trace.append("\n    at ").append(frame);
+                }
+                System.err.println(trace);
+            }
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        String description = event.getClass().getSimpleName() + "[" + event.paramString() + "]";
+        return description.length() > 200 ? description.substring(0, 200) + "..." : description;
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 考试核心路径的基准测试：单词库加载、出卷、干扰项抽样和评分，覆盖多个词库规模。
+// 不依赖第三方库，运行方式：java ExamBenchmark [词库规模...]
+final class ExamBenchmark {
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int QUESTION_COUNT = 10;
+
+    // 防止 JIT 把基准测试的结果当作死代码消除
+    private static volatile Object sink;
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {1_000, 10_000, 200_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        Path directory = Files.createTempDirectory("exam-benchmark");
+        System.out.printf("%-20s %10s %14s %12s%n", "benchmark", "size", "ns/op", "ops");
+        try {
+            for (int size : sizes) {
+                Map<String, String> library = syntheticLibrary(size, new SplittableRandom(size));
+                Path text = directory.resolve("library-" + size + ".txt");
+                Path snapshotFile = directory.resolve("library-" + size + ".snapshot");
+                writeText(library, text);
+
+                run("library.parse", size, () -> WordLibraryParser.parse(text));
+                run("library.snapshot", size, () -> {
+                    WordLibrarySnapshot.write(library, snapshotFile);
+                    return WordLibrarySnapshot.open(snapshotFile);
+                });
+
+                run("library.compact", size, () -> CompactWordLibrary.of(library));
+                CompactWordLibrary compact = CompactWordLibrary.of(library);
+                String lookup = compact.word(size / 3);
+                String lookupMeaning = library.get(lookup);
+                run("compact.lookup", size, () -> compact.idOf(lookup) + compact.meaningIdOf(lookupMeaning));
+
+                WordLibrarySnapshot snapshot = WordLibrarySnapshot.open(snapshotFile);
+                Map<String, String> mapped = snapshot.asMap();
+                WordIndex wordIndex = snapshot.wordIndex();
+                MeaningIndex meaningIndex = snapshot.meaningIndex();
+                SplittableRandom random = new SplittableRandom(42);
+
+                run("paper.create", size, () ->
+                        ExamSession.create("bench", mapped, wordIndex, meaningIndex, QUESTION_COUNT, random));
+
+                // 自适应选题：先用几次交卷结果让权重表偏离均匀分布
+                AdaptiveQuestionSelector selector = new AdaptiveQuestionSelector(wordIndex);
+                for (int i = 0; i < 10; i++) {
+                    selector.update(ExamSession.create("bench", mapped, wordIndex, meaningIndex, QUESTION_COUNT, random).grade());
+                }
+                run("paper.adaptive", size, () -> selector.select("bench", QUESTION_COUNT, random));
+
+                DistractorSampler sampler = new DistractorSampler(meaningIndex, random, ExamSession.OPTION_COUNT - 1);
+                String[] options = new String[ExamSession.OPTION_COUNT];
+                String correct = meaningIndex.meaning(0);
+                run("options.sample", size, () -> sampler.fillOptions(correct, options));
+                HardDistractorTable hard = HardDistractorTable.build(meaningIndex, 8);
+                DistractorSampler hardSampler = new DistractorSampler(meaningIndex, hard, random, ExamSession.OPTION_COUNT - 1);
+                run("options.hard", size, () -> hardSampler.fillOptions(correct, options));
+
+                run("index.build", size, () -> LibrarySearchIndex.build(wordIndex, mapped));
+                LibrarySearchIndex search = LibrarySearchIndex.build(wordIndex, mapped);
+                String word = wordIndex.word(size / 2);
+                String prefix = word.substring(0, Math.min(3, word.length()));
+                run("index.prefix", size, () -> search.wordsWithPrefix(prefix, 20));
+                String meaning = mapped.get(word);
+                run("index.meaning", size, () -> search.wordsForMeaning(meaning, 20));
+
+                ExamSession session = ExamSession.create("bench", mapped, wordIndex, meaningIndex, QUESTION_COUNT, random);
+                for (int i = 0; i < session.questionCount(); i++) {
+                    session.answer(i, random.nextInt(ExamSession.OPTION_COUNT));
+                }
+                run("exam.grade", size, session::grade);
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // 预热后在固定时长内反复执行，输出平均每次耗时
+    private static void run(String name, int size, Operation operation) throws Exception {
+        long deadline = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < deadline) {
+            sink = operation.run();
+        }
+
+        long ops = 0;
+        long start = System.nanoTime();
+        long end = start + MEASURE_NANOS;
+        long now;
+        do {
+            sink = operation.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < end);
+        System.out.printf("%-20s %10d %14.1f %12d%n", name, size, (double) (now - start) / ops, ops);
+    }
+
+    // 生成指定规模的随机单词库，释义由两段组成并有一定比例重复
+    private static Map<String, String> syntheticLibrary(int size, SplittableRandom random) {
+        Map<String, String> library = new HashMap<>(size * 4 / 3 + 1);
+        int meaningPool = Math.max(1, size / 2);
+        while (library.size() < size) {
+            String word = "w" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+            int meaning = random.nextInt(meaningPool);
+            library.put(word, "释义" + meaning + "；含义" + (meaning % 97));
+        }
+        return library;
+    }
+
+    // 删除临时目录；已映射的快照文件在 Linux 上可以直接删除，映射在进程退出前仍然有效
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void writeText(Map<String, String> library, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : library.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(',');
+                writer.write(entry.getValue());
+                writer.newLine();
+            }
+        }
+    }
+}
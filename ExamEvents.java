@@ -0,0 +1,85 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// 自定义 JFR 事件：未开启录制时几乎没有开销，
+// 用 jcmd <pid> JFR.start 或 -XX:StartFlightRecording 录制后可在 JMC 中按类别查看
+final class ExamEvents {
+    private ExamEvents() {
+    }
+
+    @Name("exam.Login")
+    @Label("登录")
+    @Category("单词考试")
+    static final class Login extends Event {
+        @Label("用户名")
+        String username;
+        @Label("是否成功")
+        boolean success;
+    }
+
+    @Name("exam.LibraryLoad")
+    @Label("加载单词库")
+    @Category("单词考试")
+    static final class LibraryLoad extends Event {
+        @Label("来源")
+        String source;
+        @Label("单词数")
+        int entries;
+    }
+
+    @Name("exam.OptionGeneration")
+    @Label("生成选项")
+    @Category("单词考试")
+    static final class OptionGeneration extends Event {
+        @Label("题数")
+        int questions;
+    }
+
+    @Name("exam.Navigation")
+    @Label("切换题目")
+    @Category("单词考试")
+    static final class Navigation extends Event {
+        @Label("目标题号")
+        int index;
+    }
+
+    @Name("exam.SubmitExam")
+    @Label("交卷")
+    @Category("单词考试")
+    static final class SubmitExam extends Event {
+        @Label("用户名")
+        String username;
+        @Label("得分")
+        int score;
+    }
+
+    @Name("exam.RankingUpdate")
+    @Label("更新排名")
+    @Category("单词考试")
+    static final class RankingUpdate extends Event {
+        @Label("用户名")
+        String username;
+        @Label("名次")
+        int rank;
+    }
+
+    @Name("exam.EdtQueueDelay")
+    @Label("EDT 排队延迟")
+    @Category("单词考试")
+    static final class EdtQueueDelay extends Event {
+        @Label("延迟")
+        @Timespan(Timespan.NANOSECONDS)
+        long delay;
+    }
+
+    @Name("exam.FloatingTextFrame")
+    @Label("浮动文字帧")
+    @Category("单词考试")
+    static final class FloatingTextFrame extends Event {
+        @Label("文字数")
+        int texts;
+    }
+}
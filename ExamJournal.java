@@ -0,0 +1,356 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// 考试结果日志：只追加写入的二进制文件，记录每次交卷的用户、起止时间和逐题作答情况。
+// 写入由单独的线程成组提交：一批记录只做一次 write 和一次 force，调用方拿到 CompletableFuture，不会阻塞在磁盘同步上。
+//
+// 记录格式：int 负载长度, int 负载的 CRC32, 负载
+// 负载：byte 版本, UTF 用户名, long 开始时间, long 交卷时间, int 题数,
+//       每题：UTF 单词, UTF 正确释义, byte 所选位置(-1 未作答), UTF 用户答案（未作答为空串）, boolean 是否正确,
+//             int 停留毫秒数（版本 2 起；版本 1 的记录按 0 读出）
+final class ExamJournal implements AutoCloseable {
+    private static final byte RECORD_VERSION = 2;
+    // 一批最多提交的记录数
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private static final class Pending {
+        final byte[] record;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(byte[] record) {
+            this.record = record;
+        }
+    }
+
+    // 逐条接收记录负载（未解码）
+    @FunctionalInterface
+    interface PayloadConsumer {
+        void accept(byte[] payload) throws IOException;
+    }
+
+    // 写线程退出标记
+    private static final Pending POISON = new Pending(new byte[0]);
+
+    private final FileChannel channel;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // closed 和入队由 this 保护：关闭后不再有记录排到退出标记之后
+    private boolean closed;
+    // 写入失败且无法回退到上一个完整批次时记下原因，之后的追加直接失败
+    private volatile IOException broken;
+    // 最后一个成功落盘的批次之后的位置，只由写线程访问
+    private long committed;
+
+    private ExamJournal(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.committed = channel.position();
+        this.writer = new Thread(this::writeLoop, "exam-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // 打开日志文件：先顺序回放所有完整记录，再截掉末尾写了一半的记录，之后的写入追加在文件末尾。
+    // 回放在文件中部遇到校验失败的记录时，从该处到文件末尾的数据另存为 <文件名>.damaged-<时间戳> 再截断，
+    // 其后可能仍有已确认的记录，需要人工检查
+    static ExamJournal open(Path file, Consumer<ExamSession.Result> replay) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ExamJournal journal;
+        try {
+            long valid = replay(channel, replay);
+            long size = channel.size();
+            if (valid < size) {
+                if (isTornTail(channel, valid)) {
+                    System.err.println("考试日志末尾有不完整记录，已截断 " + (size - valid) + " 字节");
+                } else {
+                    Path damaged = file.resolveSibling(file.getFileName() + ".damaged-" + System.currentTimeMillis());
+                    try (FileChannel out = FileChannel.open(damaged,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                        long copied = 0;
+                        while (copied < size - valid) {
+                            copied += channel.transferTo(valid + copied, size - valid - copied, out);
+                        }
+                        out.force(true);
+                    }
+                    System.err.println("考试日志在第 " + valid + " 字节处损坏，之后的 " + (size - valid)
+                            + " 字节未能回放，已另存到 " + damaged + "，请人工检查");
+                }
+                channel.truncate(valid);
+            }
+            channel.position(valid);
+            journal = new ExamJournal(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "exam-journal-shutdown"));
+        return journal;
+    }
+
+    // 只读回放一个日志文件
+    static void replay(Path file, Consumer<ExamSession.Result> consumer) throws IOException {
+        scan(file, payload -> consumer.accept(decode(payload)));
+    }
+
+    // 只读顺序扫描一个日志文件，把每条完整记录的负载交给 consumer，由调用方决定在哪个线程上解码
+    static void scan(Path file, PayloadConsumer consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            scan(channel, consumer);
+        }
+    }
+
+    // 从 offset 开始的数据是否只是一条没写完的记录（崩溃时的正常情况），而不是一条完整但校验失败的记录
+    private static boolean isTornTail(FileChannel channel, long offset) throws IOException {
+        long remaining = channel.size() - offset;
+        if (remaining < 2 * Integer.BYTES) {
+            return true;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, offset + header.position()) < 0) {
+                return true;
+            }
+        }
+        int length = header.getInt(0);
+        return length >= 0 && length <= MAX_RECORD_BYTES && 2L * Integer.BYTES + length > remaining;
+    }
+
+    private static long replay(FileChannel channel, Consumer<ExamSession.Result> consumer) throws IOException {
+        return scan(channel, payload -> consumer.accept(decode(payload)));
+    }
+
+    // 扫描到第一条不完整或校验失败的记录为止，返回有效数据的长度
+    private static long scan(FileChannel channel, PayloadConsumer consumer) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16);
+        DataInputStream data = new DataInputStream(in);
+        CRC32 crc = new CRC32();
+        long valid = 0;
+        while (true) {
+            int length;
+            int checksum;
+            byte[] payload;
+            try {
+                length = data.readInt();
+                checksum = data.readInt();
+                if (length < 0 || length > MAX_RECORD_BYTES) {
+                    return valid;
+                }
+                payload = new byte[length];
+                data.readFully(payload);
+            } catch (EOFException e) {
+                return valid;
+            }
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return valid;
+            }
+            consumer.accept(payload);
+            valid += 2 * Integer.BYTES + length;
+        }
+    }
+
+    // 异步追加一次考试结果，返回的 Future 在数据落盘后完成
+    CompletableFuture<Void> append(ExamSession.Result result) {
+        Pending pending;
+        try {
+            pending = new Pending(encode(result));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("考试日志已关闭"));
+            }
+            IOException failure = broken;
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new IOException("考试日志已停止写入", failure));
+            }
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+
+    // 停止写线程，等待已提交的记录全部落盘
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(POISON);
+        }
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("关闭考试日志失败: " + e.getMessage());
+        }
+    }
+
+    // 成组提交：取出当前排队的所有记录，合并成一次写入和一次 force
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // 写线程退出后不再接收记录，已排队的全部失败，不留下永远不完成的 Future
+                synchronized (this) {
+                    broken = new IOException("考试日志写线程被中断");
+                    queue.drainTo(batch);
+                }
+                batch.remove(POISON);
+                fail(batch, broken);
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            if (batch.remove(POISON)) {
+                running = false;
+                queue.drainTo(batch);
+                batch.remove(POISON);
+            }
+
+            if (broken != null) {
+                fail(batch, new IOException("考试日志已停止写入", broken));
+                continue;
+            }
+
+            int bytes = 0;
+            for (Pending pending : batch) {
+                bytes += pending.record.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(bytes);
+            for (Pending pending : batch) {
+                buffer.put(pending.record);
+            }
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                committed = channel.position();
+                for (Pending pending : batch) {
+                    pending.done.complete(null);
+                }
+            } catch (IOException e) {
+                System.err.println("写入考试日志失败: " + e.getMessage());
+                rollBack(e);
+                fail(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    // 批次写了一半时截回上一个完整批次的末尾，后面的批次不会接在残缺的字节之后；
+    // 截断也失败时停止写入，以免已确认的记录在下次启动回放时被当作损坏数据丢掉
+    private void rollBack(IOException cause) {
+        try {
+            channel.truncate(committed);
+            channel.position(committed);
+        } catch (IOException e) {
+            e.addSuppressed(cause);
+            broken = e;
+            System.err.println("无法回退考试日志，之后的成绩不再写入: " + e.getMessage());
+        }
+    }
+
+    private static void fail(List<Pending> batch, IOException cause) {
+        for (Pending pending : batch) {
+            pending.done.completeExceptionally(cause);
+        }
+        batch.clear();
+    }
+
+    private static byte[] encode(ExamSession.Result result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + result.questionCount * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // 长度，稍后回填
+        out.writeInt(0); // CRC32，稍后回填
+        out.writeByte(RECORD_VERSION);
+        out.writeUTF(result.username);
+        out.writeLong(result.startedAtMillis);
+        out.writeLong(result.finishedAtMillis);
+        out.writeInt(result.answers.size());
+        for (ExamSession.Answer answer : result.answers) {
+            out.writeUTF(answer.word);
+            out.writeUTF(answer.correctMeaning != null ? answer.correctMeaning : "");
+            out.writeByte(answer.option);
+            out.writeUTF(answer.userAnswer != null ? answer.userAnswer : "");
+            out.writeBoolean(answer.correct);
+            out.writeInt((int) Math.min(Integer.MAX_VALUE, answer.dwellMillis));
+        }
+        out.flush();
+
+        byte[] record = bytes.toByteArray();
+        int length = record.length - 2 * Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(record, 2 * Integer.BYTES, length);
+        ByteBuffer header = ByteBuffer.wrap(record);
+        header.putInt(length);
+        header.putInt((int) crc.getValue());
+        return record;
+    }
+
+    // 解码一条记录的负载
+    static ExamSession.Result decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte version = in.readByte();
+        if (version != 1 && version != RECORD_VERSION) {
+            throw new IOException("不支持的考试日志记录版本: " + version);
+        }
+        String username = in.readUTF();
+        long startedAt = in.readLong();
+        long finishedAt = in.readLong();
+        int count = in.readInt();
+        List<ExamSession.Answer> answers = new ArrayList<>(count);
+        List<ExamSession.Answer> wrongAnswers = new ArrayList<>();
+        int correct = 0;
+        for (int i = 0; i < count; i++) {
+            String word = in.readUTF();
+            String correctMeaning = in.readUTF();
+            int option = in.readByte();
+            String userAnswer = in.readUTF();
+            boolean isCorrect = in.readBoolean();
+            long dwellMillis = version >= 2 ? in.readInt() : 0;
+            ExamSession.Answer answer = new ExamSession.Answer(word, correctMeaning, option,
+                    option != -1 ? userAnswer : null, isCorrect, dwellMillis);
+            answers.add(answer);
+            if (isCorrect) {
+                correct++;
+            } else {
+                wrongAnswers.add(answer);
+            }
+        }
+        return new ExamSession.Result(username, startedAt, finishedAt, correct, answers, wrongAnswers);
+    }
+}
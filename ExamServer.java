@@ -0,0 +1,476 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// 无界面的本地考试服务：用 JDK 自带的 HttpServer 提供登录、取题、作答和交卷接口，
+// 每个请求一个线程（运行时支持时为虚拟线程），所有会话共享同一份只读单词库。
+// 请求参数用 query string 或 application/x-www-form-urlencoded 请求体传递，响应为 JSON：
+//   POST /login    username, password          -> {"token", "questionCount", "remainingSeconds"}（已有进行中的考试时返回它的 token）
+//   POST /question token, index                -> {"index", "word", "options", "answer"}（同时切换当前题目，计入停留时间）
+//   POST /answer   token, index, option(-1 清除) -> {"index", "answer"}
+//   POST /submit   token                       -> {"score", "fullScore", "correctCount", "rank", "wrong"}
+//   GET  /stats    word                        -> {"word", "attempts", "correct", "difficulty", "distractors", ...}
+//   GET  /stats    [limit]                     -> {"words", "meanDwellMillis", "medianDwellMillis", "hardest"}（作答次数不少于 MIN_STATS_ATTEMPTS 的最难单词，最多 MAX_STATS_LIMIT 个）
+//   GET  /search   prefix, [limit]             -> {"count", "words"}（以 prefix 开头的单词总数和按字典序的前 limit 个）
+//   GET  /search   meaning, [limit]            -> {"words"}（释义包含 meaning 所有词条的单词）
+// 到达考试时长仍未交卷的会话由共享时间轮自动交卷；sessions 返回已开始的会话（从检查点恢复）时按剩余时间继续。
+// 每个用户同时只有一个会话，检查点按用户保存，多个会话会互相覆盖作答进度
+final class ExamServer {
+    private static final SecureRandom TOKENS = new SecureRandom();
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int DEFAULT_STATS_LIMIT = 20;
+    // limit 的上限，超出时按上限返回
+    private static final int MAX_STATS_LIMIT = 200;
+    private static final long MIN_STATS_ATTEMPTS = 10;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 200;
+
+    // 服务端的一个考试会话；ExamSession 不是线程安全的，访问时锁住 session
+    private static final class Live {
+        final ExamSession session;
+        final long deadlineNanos;
+        // 会话发布到 live 之后才安排自动交卷，其间交卷的请求看到 null
+        volatile ExamTimerWheel.Timeout expiry;
+
+        Live(ExamSession session, long deadlineNanos) {
+            this.session = session;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    // 请求无法处理，按 status 返回错误（默认 400）
+    private static final class BadRequest extends Exception {
+        final int status;
+
+        BadRequest(String message) {
+            this(400, message);
+        }
+
+        BadRequest(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final CredentialIndex credentials;
+    private final Function<String, ExamSession> sessions;
+    private final ToIntFunction<ExamSession.Result> submit;
+    private final Consumer<ExamSession> progress;
+    private final ItemStatistics itemStatistics;
+    private final Supplier<LibrarySearchIndex> searchIndex;
+    private final long durationNanos;
+    private final Map<String, Live> live = new ConcurrentHashMap<>();
+    // 用户名 -> 进行中会话的 token；交卷后成绩保存完成（检查点已删除）才移除
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    // 按用户名分段的开考锁：同一用户的开考（读检查点、出卷、保存过期检查点的成绩）串行执行，
+    // 不同用户大多落在不同分段上，互不阻塞；不占用 tokens 的散列桶锁
+    private final ReentrantLock[] openLocks = new ReentrantLock[64];
+    private final ExecutorService executor = VirtualThreads.newPerTaskExecutor("exam-server");
+    private HttpServer server;
+
+    // sessions 为用户出卷，submit 保存成绩并返回名次，progress 在作答进度变化后调用（持有会话锁），
+    // itemStatistics 供 /stats 查询，由 submit 负责写入；searchIndex 返回当前单词库版本的检索索引，供 /search 查询
+    ExamServer(CredentialIndex credentials, Function<String, ExamSession> sessions,
+               ToIntFunction<ExamSession.Result> submit, Consumer<ExamSession> progress,
+               ItemStatistics itemStatistics, Supplier<LibrarySearchIndex> searchIndex, long duration, TimeUnit unit) {
+        this.credentials = credentials;
+        this.sessions = sessions;
+        this.submit = submit;
+        this.progress = progress;
+        this.itemStatistics = itemStatistics;
+        this.searchIndex = searchIndex;
+        this.durationNanos = unit.toNanos(duration);
+        for (int i = 0; i < openLocks.length; i++) {
+            openLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // 只监听本机回环地址
+    synchronized void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/login", exchange -> handle(exchange, "POST", this::login));
+        server.createContext("/question", exchange -> handle(exchange, "POST", this::question));
+        server.createContext("/answer", exchange -> handle(exchange, "POST", this::answer));
+        server.createContext("/submit", exchange -> handle(exchange, "POST", this::submit));
+        server.createContext("/stats", exchange -> handle(exchange, "GET", this::stats));
+        server.createContext("/search", exchange -> handle(exchange, "GET", this::search));
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    int liveSessions() {
+        return live.size();
+    }
+
+    synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        String handle(Map<String, String> params) throws BadRequest;
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("只支持 " + method);
+            } else {
+                body = handler.handle(params(exchange));
+            }
+        } catch (BadRequest e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error("服务器内部错误");
+            System.err.println("处理请求失败: " + exchange.getRequestURI() + ": " + e);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String login(Map<String, String> params) throws BadRequest {
+        String username = required(params, "username");
+        if (!credentials.verify(username, required(params, "password"))) {
+            throw new BadRequest(401, "用户名或密码错误");
+        }
+        String token = tokens.get(username);
+        if (token == null) {
+            ReentrantLock lock = openLocks[(username.hashCode() & 0x7FFFFFFF) % openLocks.length];
+            lock.lock();
+            try {
+                token = tokens.get(username);
+                if (token == null) {
+                    token = open(username);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        Live exam = live.get(token);
+        if (exam == null) {
+            // 上一场考试已从 live 移除但成绩还没保存完，此时新开会话可能读到尚未删除的检查点
+            throw new BadRequest(409, "上一场考试正在交卷，请稍后重试");
+        }
+        long remainingNanos = Math.max(0, exam.deadlineNanos - System.nanoTime());
+        return "{\"token\":" + quote(token)
+                + ",\"questionCount\":" + exam.session.questionCount()
+                + ",\"remainingSeconds\":" + TimeUnit.NANOSECONDS.toSeconds(remainingNanos) + "}";
+    }
+
+    // 为用户开始（或从检查点恢复）一场考试并返回新 token，持有该用户的开考锁。
+    // 先放入 live 再发布 token、最后安排自动交卷：截止时间已过的恢复会话立即到期时也能在 live 中找到
+    private String open(String username) {
+        ExamSession session = sessions.apply(username);
+        long remainingNanos;
+        synchronized (session) {
+            long nowMillis = System.currentTimeMillis();
+            if (!session.isStarted()) {
+                session.start(nowMillis, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            }
+            remainingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, session.getDeadlineMillis() - nowMillis));
+            progress.accept(session);
+        }
+        Live exam = new Live(session, System.nanoTime() + remainingNanos);
+        String token = newToken();
+        live.put(token, exam);
+        tokens.put(username, token);
+        exam.expiry = ExamTimerWheel.shared().schedule(
+                () -> executor.execute(() -> expire(token)), remainingNanos, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    private String question(Map<String, String> params) throws BadRequest {
+        Live exam = lookup(params);
+        ExamSession session = exam.session;
+        synchronized (session) {
+            int index = index(params, session);
+            session.moveTo(index);
+            StringBuilder json = new StringBuilder(128);
+            json.append("{\"index\":").append(index)
+                    .append(",\"word\":").append(quote(session.word(index)))
+                    .append(",\"options\":[");
+            String[] options = session.options(index);
+            for (int i = 0; i < options.length; i++) {
+                json.append(i > 0 ? "," : "").append(quote(options[i]));
+            }
+            json.append("],\"answer\":").append(session.answerOf(index))
+                    .append(",\"remainingSeconds\":")
+                    .append(TimeUnit.NANOSECONDS.toSeconds(Math.max(0, exam.deadlineNanos - System.nanoTime())))
+                    .append('}');
+            return json.toString();
+        }
+    }
+
+    private String answer(Map<String, String> params) throws BadRequest {
+        ExamSession session = lookup(params).session;
+        synchronized (session) {
+            int index = index(params, session);
+            int option = integer(params, "option");
+            if (option < -1 || option >= ExamSession.OPTION_COUNT) {
+                throw new BadRequest("选项超出范围: " + option);
+            }
+            session.answer(index, option);
+            progress.accept(session);
+            return "{\"index\":" + index + ",\"answer\":" + option + "}";
+        }
+    }
+
+    private String submit(Map<String, String> params) throws BadRequest {
+        String token = required(params, "token");
+        Live exam = live.remove(token);
+        if (exam == null) {
+            throw new BadRequest(404, "会话不存在或已交卷");
+        }
+        ExamTimerWheel.Timeout expiry = exam.expiry;
+        if (expiry != null) {
+            expiry.cancel();
+        }
+        ExamSession.Result result;
+        synchronized (exam.session) {
+            result = exam.session.grade();
+        }
+        int rank;
+        try {
+            rank = submit.applyAsInt(result);
+        } finally {
+            tokens.remove(result.username, token);
+        }
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"score\":").append(result.score())
+                .append(",\"fullScore\":").append(result.fullScore())
+                .append(",\"correctCount\":").append(result.correctCount)
+                .append(",\"rank\":").append(rank)
+                .append(",\"wrong\":[");
+        for (int i = 0; i < result.wrongAnswers.size(); i++) {
+            ExamSession.Answer wrong = result.wrongAnswers.get(i);
+            json.append(i > 0 ? "," : "")
+                    .append("{\"word\":").append(quote(wrong.word))
+                    .append(",\"correctMeaning\":").append(quote(wrong.correctMeaning))
+                    .append(",\"userAnswer\":").append(quote(wrong.userAnswer))
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String stats(Map<String, String> params) throws BadRequest {
+        String word = params.get("word");
+        if (word == null) {
+            int limit = params.containsKey("limit") ? integer(params, "limit") : DEFAULT_STATS_LIMIT;
+            limit = Math.max(0, Math.min(MAX_STATS_LIMIT, limit));
+            StringBuilder json = new StringBuilder(64 + limit * 64);
+            ItemStatistics.DwellHistogram dwell = itemStatistics.overallDwell();
+            json.append("{\"words\":").append(itemStatistics.size())
+                    .append(",\"meanDwellMillis\":").append(dwell.meanMillis())
+                    .append(",\"medianDwellMillis\":").append(dwell.percentileMillis(0.5))
+                    .append(",\"hardest\":[");
+            List<ItemStatistics.Summary> hardest = itemStatistics.hardest(limit, MIN_STATS_ATTEMPTS);
+            for (int i = 0; i < hardest.size(); i++) {
+                ItemStatistics.Summary summary = hardest.get(i);
+                json.append(i > 0 ? "," : "")
+                        .append("{\"word\":").append(quote(summary.word))
+                        .append(",\"attempts\":").append(summary.attempts)
+                        .append(",\"difficulty\":").append(String.format("%.3f", summary.difficulty()))
+                        .append('}');
+            }
+            return json.append("]}").toString();
+        }
+        ItemStatistics.Summary summary = itemStatistics.summary(word);
+        if (summary == null) {
+            throw new BadRequest(404, "该单词还没有作答记录: " + word);
+        }
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"word\":").append(quote(summary.word))
+                .append(",\"attempts\":").append(summary.attempts)
+                .append(",\"correct\":").append(summary.correct)
+                .append(",\"unanswered\":").append(summary.unanswered)
+                .append(",\"difficulty\":").append(String.format("%.3f", summary.difficulty()))
+                .append(",\"meanDwellMillis\":").append(summary.dwell.meanMillis())
+                .append(",\"medianDwellMillis\":").append(summary.dwell.percentileMillis(0.5))
+                .append(",\"p90DwellMillis\":").append(summary.dwell.percentileMillis(0.9))
+                .append(",\"distractors\":[");
+        for (int i = 0; i < summary.distractors.length; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"meaning\":").append(quote(summary.distractors[i]))
+                    .append(",\"count\":").append(summary.distractorCounts[i])
+                    .append('}');
+        }
+        return json.append("],\"otherDistractors\":").append(summary.otherDistractors).append('}').toString();
+    }
+
+    private String search(Map<String, String> params) throws BadRequest {
+        int limit = params.containsKey("limit") ? integer(params, "limit") : DEFAULT_SEARCH_LIMIT;
+        limit = Math.max(0, Math.min(MAX_SEARCH_LIMIT, limit));
+        LibrarySearchIndex index = searchIndex.get();
+        String prefix = params.get("prefix");
+        StringBuilder json = new StringBuilder(64 + limit * 32);
+        List<String> words;
+        if (prefix != null) {
+            json.append("{\"count\":").append(index.countPrefix(prefix)).append(',');
+            words = index.wordsWithPrefix(prefix, limit);
+        } else {
+            json.append('{');
+            words = index.wordsForMeaning(required(params, "meaning"), limit);
+        }
+        json.append("\"words\":[");
+        for (int i = 0; i < words.size(); i++) {
+            json.append(i > 0 ? "," : "").append(quote(words.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    // 考试时间到仍未交卷：按已作答的内容自动交卷
+    private void expire(String token) {
+        Live exam = live.remove(token);
+        if (exam == null) {
+            return;
+        }
+        ExamSession.Result result;
+        synchronized (exam.session) {
+            result = exam.session.grade();
+        }
+        try {
+            submit.applyAsInt(result);
+        } finally {
+            tokens.remove(result.username, token);
+        }
+    }
+
+    private Live lookup(Map<String, String> params) throws BadRequest {
+        Live exam = live.get(required(params, "token"));
+        if (exam == null) {
+            throw new BadRequest(404, "会话不存在或已交卷");
+        }
+        return exam;
+    }
+
+    private static int index(Map<String, String> params, ExamSession session) throws BadRequest {
+        int index = integer(params, "index");
+        if (index < 0 || index >= session.questionCount()) {
+            throw new BadRequest("题号超出范围: " + index);
+        }
+        return index;
+    }
+
+    private static String required(Map<String, String> params, String name) throws BadRequest {
+        String value = params.get(name);
+        if (value == null) {
+            throw new BadRequest("缺少参数: " + name);
+        }
+        return value;
+    }
+
+    private static int integer(Map<String, String> params, String name) throws BadRequest {
+        String value = required(params, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequest("参数不是整数: " + name);
+        }
+    }
+
+    // 合并 query string 和表单请求体中的参数，请求体优先
+    private static Map<String, String> params(HttpExchange exchange) throws IOException, BadRequest {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new BadRequest("请求体过大");
+                }
+                body.write(buffer, 0, read);
+            }
+            parseForm(body.toString(StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        TOKENS.nextBytes(bytes);
+        StringBuilder token = new StringBuilder(32);
+        for (byte b : bytes) {
+            token.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return token.toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    // JSON 字符串字面量，null 输出为 null
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+}
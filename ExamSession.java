@@ -0,0 +1,296 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// 考试会话引擎：负责选题、出选项、记录作答和评分，不依赖任何 Swing 组件，
+// 考试窗口只负责渲染它的状态
+final class ExamSession {
+    // 每道题的选项数（1个正确，3个干扰项）
+    static final int OPTION_COUNT = 4;
+    private static final Metrics.Histogram OPTION_GENERATION = Metrics.histogram("options.generate");
+
+    private final String username;
+    private final Map<String, String> wordLibrary;
+    private final Paper paper;
+    private final List<String> words;
+    private final String[][] options;
+    private final int[] correctOptions;
+    // 用户答案，-1 表示未作答
+    private final int[] answers;
+    private int currentIndex = 0;
+    // 每道题累计停留的时间（纳秒），以及当前题开始显示的时刻（0 表示尚未开始计时）
+    private final long[] dwellNanos;
+    private long viewingSinceNanos;
+    // 开始作答的时间和截止时间（毫秒时间戳），0 表示尚未开始
+    private long startedAtMillis;
+    private long deadlineMillis;
+
+    ExamSession(String username, Map<String, String> wordLibrary, Paper paper) {
+        this.username = username;
+        this.wordLibrary = wordLibrary;
+        this.paper = paper;
+        this.words = paper.words;
+        this.options = paper.options;
+        this.correctOptions = paper.correctOptions;
+        this.answers = new int[words.size()];
+        Arrays.fill(answers, -1);
+        this.dwellNanos = new long[words.size()];
+    }
+
+    // 一份试卷：题目单词及每道题在出卷时固定下来的选项，与作答用户无关，可以预先生成
+    static final class Paper {
+        final List<String> words;
+        final String[][] options;
+        final int[] correctOptions;
+
+        Paper(List<String> words, String[][] options, int[] correctOptions) {
+            this.words = words;
+            this.options = options;
+            this.correctOptions = correctOptions;
+        }
+    }
+
+    // 用给定的题目单词出卷
+    static Paper paperFor(Map<String, String> wordLibrary, MeaningIndex meaningIndex,
+                          List<String> words, SplittableRandom random) {
+        return paperFor(wordLibrary, meaningIndex, null, words, random);
+    }
+
+    // 用给定的题目单词出卷，hard 不为 null 时优先从近邻表取干扰项
+    static Paper paperFor(Map<String, String> wordLibrary, MeaningIndex meaningIndex, HardDistractorTable hard,
+                          List<String> words, SplittableRandom random) {
+        long started = System.nanoTime();
+        ExamEvents.OptionGeneration event = new ExamEvents.OptionGeneration();
+        event.begin();
+        DistractorSampler sampler = new DistractorSampler(meaningIndex, hard, random, OPTION_COUNT - 1);
+        String[][] options = new String[words.size()][OPTION_COUNT];
+        int[] correctOptions = new int[words.size()];
+        for (int i = 0; i < words.size(); i++) {
+            correctOptions[i] = sampler.fillOptions(wordLibrary.get(words.get(i)), options[i]);
+        }
+        event.questions = words.size();
+        event.commit();
+        OPTION_GENERATION.recordSince(started);
+        return new Paper(Collections.unmodifiableList(new ArrayList<>(words)), options, correctOptions);
+    }
+
+    // 均匀抽出 questionCount 个单词出卷，只做 O(k) 的工作
+    static Paper randomPaper(Map<String, String> wordLibrary, WordIndex wordIndex, MeaningIndex meaningIndex,
+                             int questionCount, SplittableRandom random) {
+        return randomPaper(wordLibrary, wordIndex, meaningIndex, null, questionCount, random);
+    }
+
+    static Paper randomPaper(Map<String, String> wordLibrary, WordIndex wordIndex, MeaningIndex meaningIndex,
+                             HardDistractorTable hard, int questionCount, SplittableRandom random) {
+        int[] ids = AdaptiveQuestionSelector.sampleUniform(wordIndex.size(), questionCount, random);
+        List<String> words = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            words.add(wordIndex.word(id));
+        }
+        return paperFor(wordLibrary, meaningIndex, hard, words, random);
+    }
+
+    // 随机出一份试卷
+    static ExamSession create(String username, Map<String, String> wordLibrary, WordIndex wordIndex,
+                              MeaningIndex meaningIndex, int questionCount, SplittableRandom random) {
+        return new ExamSession(username, wordLibrary, randomPaper(wordLibrary, wordIndex, meaningIndex, questionCount, random));
+    }
+
+    // 用给定的题目单词出卷
+    static ExamSession forWords(String username, Map<String, String> wordLibrary, MeaningIndex meaningIndex,
+                                List<String> words, SplittableRandom random) {
+        return new ExamSession(username, wordLibrary, paperFor(wordLibrary, meaningIndex, words, random));
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    // 从检查点恢复一场未完成的考试
+    static ExamSession restore(String username, Map<String, String> wordLibrary, Paper paper, int[] answers,
+                               int currentIndex, long startedAtMillis, long deadlineMillis) {
+        ExamSession session = new ExamSession(username, wordLibrary, paper);
+        System.arraycopy(answers, 0, session.answers, 0, Math.min(answers.length, session.answers.length));
+        session.moveTo(currentIndex);
+        session.startedAtMillis = startedAtMillis;
+        session.deadlineMillis = deadlineMillis;
+        if (session.isStarted()) {
+            // 检查点不保存停留时间，恢复后从当前题重新计时
+            session.viewingSinceNanos = System.nanoTime();
+        }
+        return session;
+    }
+
+    // 记录开始作答的时间和考试时长
+    void start(long nowMillis, long durationMillis) {
+        startedAtMillis = nowMillis;
+        deadlineMillis = nowMillis + durationMillis;
+        viewingSinceNanos = System.nanoTime();
+    }
+
+    boolean isStarted() {
+        return startedAtMillis != 0;
+    }
+
+    long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    int questionCount() {
+        return words.size();
+    }
+
+    String word(int index) {
+        return words.get(index);
+    }
+
+    List<String> words() {
+        return words;
+    }
+
+    Paper getPaper() {
+        return paper;
+    }
+
+    // 第 index 题的选项（只读使用，不要修改）
+    String[] options(int index) {
+        return options[index];
+    }
+
+    int correctOption(int index) {
+        return correctOptions[index];
+    }
+
+    int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    // 跳转到指定题目，越界时保持不变并返回 false
+    boolean moveTo(int index) {
+        if (index < 0 || index >= words.size()) {
+            return false;
+        }
+        accumulateDwell();
+        currentIndex = index;
+        return true;
+    }
+
+    // 把当前题从开始显示到现在的时间计入它的停留时间
+    private void accumulateDwell() {
+        if (viewingSinceNanos != 0) {
+            long now = System.nanoTime();
+            dwellNanos[currentIndex] += now - viewingSinceNanos;
+            viewingSinceNanos = now;
+        }
+    }
+
+    // 第 index 题累计停留的毫秒数
+    long dwellMillis(int index) {
+        return dwellNanos[index] / 1_000_000;
+    }
+
+    boolean previous() {
+        return moveTo(currentIndex - 1);
+    }
+
+    boolean next() {
+        return moveTo(currentIndex + 1);
+    }
+
+    // 记录第 index 题的答案，option 为 -1 表示清除
+    void answer(int index, int option) {
+        if (index < 0 || index >= answers.length) {
+            throw new IndexOutOfBoundsException("题号超出范围: " + index);
+        }
+        if (option < -1 || option >= OPTION_COUNT) {
+            throw new IllegalArgumentException("选项超出范围: " + option);
+        }
+        answers[index] = option;
+    }
+
+    int answerOf(int index) {
+        return answers[index];
+    }
+
+    // 评分：直接比较作答位置和出卷时记录的正确位置
+    Result grade() {
+        accumulateDwell();
+        int correct = 0;
+        List<Answer> all = new ArrayList<>(words.size());
+        List<Answer> wrongAnswers = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            int option = answers[i];
+            String word = words.get(i);
+            // 试卷自带正确释义；从检查点恢复到另一个单词库时也能给出
+            String correctMeaning = correctOptions[i] >= 0 ? options[i][correctOptions[i]] : wordLibrary.get(word);
+            Answer answer = new Answer(word, correctMeaning, option,
+                    option != -1 ? options[i][option] : null, option == correctOptions[i], dwellMillis(i));
+            all.add(answer);
+            if (answer.correct) {
+                correct++;
+            } else {
+                wrongAnswers.add(answer);
+            }
+        }
+        return new Result(username, startedAtMillis, System.currentTimeMillis(), correct, all, wrongAnswers);
+    }
+
+    // 评分结果
+    static final class Result {
+        final String username;
+        final long startedAtMillis;
+        final long finishedAtMillis;
+        final int questionCount;
+        final int correctCount;
+        // 每道题的作答情况（按题目顺序）及其中答错的部分
+        final List<Answer> answers;
+        final List<Answer> wrongAnswers;
+
+        Result(String username, long startedAtMillis, long finishedAtMillis, int correctCount,
+               List<Answer> answers, List<Answer> wrongAnswers) {
+            this.username = username;
+            this.startedAtMillis = startedAtMillis;
+            this.finishedAtMillis = finishedAtMillis;
+            this.questionCount = answers.size();
+            this.correctCount = correctCount;
+            this.answers = answers;
+            this.wrongAnswers = wrongAnswers;
+        }
+
+        // 每题 10 分
+        int score() {
+            return correctCount * 10;
+        }
+
+        int fullScore() {
+            return questionCount * 10;
+        }
+    }
+
+    // 一道题的作答：单词、正确释义、所选选项位置（-1 为未作答）、用户答案（未作答时为 null）
+    // 和在这道题上累计停留的毫秒数（未知时为 0）
+    static final class Answer {
+        final String word;
+        final String correctMeaning;
+        final int option;
+        final String userAnswer;
+        final boolean correct;
+        final long dwellMillis;
+
+        Answer(String word, String correctMeaning, int option, String userAnswer, boolean correct, long dwellMillis) {
+            this.word = word;
+            this.correctMeaning = correctMeaning;
+            this.option = option;
+            this.userAnswer = userAnswer;
+            this.correct = correct;
+            this.dwellMillis = dwellMillis;
+        }
+    }
+}
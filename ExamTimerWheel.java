@@ -0,0 +1,214 @@
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+// 共享时间轮：所有考试倒计时、自动交卷和动画帧都挂在同一个线程上，基于 System.nanoTime()。
+// 倒计时标签每秒只向 EDT 提交一个批量更新任务。任务实际触发时间相对截止时间的漂移记录在
+// timer.drift 直方图中，随指标快照导出
+final class ExamTimerWheel {
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Metrics.Histogram DRIFT = Metrics.histogram("timer.drift");
+    private static final ExamTimerWheel SHARED = new ExamTimerWheel(TimeUnit.MILLISECONDS.toNanos(10), 512);
+
+    // 时间轮上的一个定时任务，cancel 只打标记，由时间轮线程惰性移除
+    static final class Timeout {
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // 一个考试倒计时：每秒在 EDT 上收到剩余秒数，到期时在 EDT 上执行 onExpire
+    final class Countdown {
+        private final long deadline;
+        private final LongConsumer display;
+        private final Timeout expiry;
+
+        private Countdown(long deadline, LongConsumer display, Runnable onExpire) {
+            this.deadline = deadline;
+            this.display = display;
+            this.expiry = schedule(() -> {
+                countdowns.remove(this);
+                SwingUtilities.invokeLater(onExpire);
+            }, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        long remainingNanos() {
+            return Math.max(0, deadline - System.nanoTime());
+        }
+
+        void cancel() {
+            expiry.cancel();
+            countdowns.remove(this);
+        }
+    }
+
+    private final long tickNanos;
+    private final List<List<Timeout>> buckets;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Countdown> countdowns = ConcurrentHashMap.newKeySet();
+    // 上一批倒计时标签更新尚未在 EDT 上执行完时，不再提交新的批次
+    private final AtomicBoolean displayPending = new AtomicBoolean();
+    private final long startNanos;
+    private long tick;
+
+    ExamTimerWheel(long tickNanos, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize 必须是 2 的幂: " + wheelSize);
+        }
+        this.tickNanos = tickNanos;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.startNanos = System.nanoTime();
+
+        scheduleAtFixedRate(this::refreshCountdowns, SECOND_NANOS, TimeUnit.NANOSECONDS);
+
+        Thread worker = new Thread(this::run, "exam-timer-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    static ExamTimerWheel shared() {
+        return SHARED;
+    }
+
+    // 延迟执行一次，任务在时间轮线程上运行，必须很短
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return enqueue(new Timeout(task, elapsed() + Math.max(0, unit.toNanos(delay)), 0));
+    }
+
+    // 按固定频率重复执行，下一次截止时间按理想时间推算，不累积误差
+    Timeout scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        long periodNanos = Math.max(tickNanos, unit.toNanos(period));
+        return enqueue(new Timeout(task, elapsed() + periodNanos, periodNanos));
+    }
+
+    // 开始一个倒计时，deadlineNanos 为 System.nanoTime() 时间基准下的截止时刻
+    Countdown startCountdown(long deadlineNanos, LongConsumer displayRemainingSeconds, Runnable onExpire) {
+        Countdown countdown = new Countdown(deadlineNanos, displayRemainingSeconds, onExpire);
+        countdowns.add(countdown);
+        return countdown;
+    }
+
+    private Timeout enqueue(Timeout timeout) {
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private long elapsed() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // 所有倒计时共用同一个“现在”，合并成一个 EDT 任务更新标签
+    private void refreshCountdowns() {
+        if (countdowns.isEmpty() || !displayPending.compareAndSet(false, true)) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            displayPending.set(false);
+            long now = System.nanoTime();
+            for (Countdown countdown : countdowns) {
+                long remaining = countdown.deadline - now;
+                if (remaining > 0) {
+                    countdown.display.accept(TimeUnit.NANOSECONDS.toSeconds(remaining));
+                }
+            }
+        });
+    }
+
+    private void run() {
+        while (true) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = tickDeadline - elapsed()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            transferPending();
+            expire(buckets.get((int) (tick & mask)), tickDeadline);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            place(timeout);
+        }
+    }
+
+    // 按截止时间放入对应的槽位，超过一圈的记录剩余圈数
+    private void place(Timeout timeout) {
+        if (timeout.cancelled) {
+            return;
+        }
+        long targetTick = Math.max(tick, (timeout.deadline + tickNanos - 1) / tickNanos - 1);
+        timeout.remainingRounds = (targetTick - tick) / buckets.size();
+        buckets.get((int) (targetTick & mask)).add(timeout);
+    }
+
+    private void expire(List<Timeout> bucket, long now) {
+        List<Timeout> rescheduled = null;
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Timeout timeout = bucket.get(i);
+            if (!timeout.cancelled && timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+            // 交换删除，槽位内顺序无关紧要
+            bucket.set(i, bucket.get(bucket.size() - 1));
+            bucket.remove(bucket.size() - 1);
+            if (timeout.cancelled) {
+                continue;
+            }
+            DRIFT.record(Math.max(0, elapsed() - timeout.deadline));
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                System.err.println("定时任务执行失败: " + e);
+            }
+            if (timeout.period > 0 && !timeout.cancelled) {
+                timeout.deadline += timeout.period;
+                if (rescheduled == null) {
+                    rescheduled = new ArrayList<>();
+                }
+                rescheduled.add(timeout);
+            }
+        }
+        if (rescheduled != null) {
+            for (Timeout timeout : rescheduled) {
+                // 落后太多时跳过错过的周期，避免集中补跑
+                if (timeout.deadline <= now) {
+                    timeout.deadline = now + timeout.period - (now - timeout.deadline) % timeout.period;
+                }
+                place(timeout);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// “难”干扰项近邻表：对每个释义预先找出字面最相近的 K 个其他释义，出题时直接查表，O(1)。
+// 离线构建：释义按词条切分后取单字和字符二元组作为 shingle，计算 MinHash 签名，再用 LSH 分桶只比较同桶的候选对，
+// 避免 O(n²) 两两比较。与正确释义有相同或互相包含的词条的释义（近义，可能同样正确）不作为干扰项。
+// 结果存成 int[n * K] 的扁平数组，不足 K 个的位置为 -1，可写入文件，单词库不变时启动直接读取
+//
+// 文件格式（大端）：int magic, int version, int meaningCount, int k, int[meaningCount * k]
+final class HardDistractorTable {
+    private static final int MAGIC = 0x48445431; // "HDT1"
+    private static final int VERSION = 1;
+
+    // MinHash 签名长度 = 分段数 × 每段行数；每段 2 行时 Jaccard 约 0.25 以上的释义对大概率落入同一桶
+    private static final int BANDS = 16;
+    private static final int ROWS = 2;
+    private static final int SIGNATURE = BANDS * ROWS;
+    // 过大的桶由非常常见的 shingle 造成，区分度低，只比较桶内相邻的这么多项
+    private static final int MAX_BUCKET_SPAN = 32;
+    // 签名至少有这么多位相同才算相近
+    private static final int MIN_AGREEMENT = 4;
+
+    private static final long[] SEEDS_A = new long[SIGNATURE];
+    private static final long[] SEEDS_B = new long[SIGNATURE];
+
+    static {
+        SplittableRandom seeds = new SplittableRandom(0x5EED);
+        for (int i = 0; i < SIGNATURE; i++) {
+            SEEDS_A[i] = seeds.nextLong() | 1;
+            SEEDS_B[i] = seeds.nextLong();
+        }
+    }
+
+    private final int size;
+    private final int k;
+    private final int[] neighbors;
+
+    private HardDistractorTable(int size, int k, int[] neighbors) {
+        this.size = size;
+        this.k = k;
+        this.neighbors = neighbors;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int k() {
+        return k;
+    }
+
+    // 释义 id 的第 rank 个近邻（按相似度降序），没有时返回 -1
+    int neighbor(int id, int rank) {
+        return neighbors[id * k + rank];
+    }
+
+    // 为释义索引构建近邻表
+    static HardDistractorTable build(MeaningIndex index, int k) {
+        int n = index.size();
+        int[] signatures = new int[n * SIGNATURE];
+        String[][] tokens = new String[n][];
+        for (int id = 0; id < n; id++) {
+            List<String> meaningTokens = LibrarySearchIndex.tokens(index.meaning(id));
+            tokens[id] = meaningTokens.toArray(new String[0]);
+            sign(meaningTokens, signatures, id * SIGNATURE);
+        }
+
+        int[] neighbors = new int[n * k];
+        byte[] scores = new byte[n * k];
+        Arrays.fill(neighbors, -1);
+
+        // 每个分段：按 (段哈希, id) 排序，同一段哈希的释义即为一个桶
+        long[] keys = new long[n];
+        for (int band = 0; band < BANDS; band++) {
+            for (int id = 0; id < n; id++) {
+                long hash = band;
+                for (int r = 0; r < ROWS; r++) {
+                    hash = hash * 0x9E3779B97F4A7C15L + signatures[id * SIGNATURE + band * ROWS + r];
+                }
+                keys[id] = (mix(hash) & 0xFFFF_FFFF_0000_0000L) | id;
+            }
+            Arrays.sort(keys);
+            int start = 0;
+            while (start < n) {
+                int end = start + 1;
+                while (end < n && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+                    end++;
+                }
+                for (int i = start; i < end; i++) {
+                    int a = (int) keys[i];
+                    for (int j = i + 1; j < end && j <= i + MAX_BUCKET_SPAN; j++) {
+                        int b = (int) keys[j];
+                        int agreement = agreement(signatures, a, b);
+                        if (agreement >= MIN_AGREEMENT && agreement < SIGNATURE && !overlaps(tokens[a], tokens[b])) {
+                            offer(neighbors, scores, k, a, b, agreement);
+                            offer(neighbors, scores, k, b, a, agreement);
+                        }
+                    }
+                }
+                start = end;
+            }
+        }
+        return new HardDistractorTable(n, k, neighbors);
+    }
+
+    // 近邻表文件存在、不比快照旧且释义数一致时可直接使用
+    static boolean isFresh(Path table, Path snapshot, int meaningCount) throws IOException {
+        if (!Files.exists(table)
+                || (Files.exists(snapshot) && Files.getLastModifiedTime(table).compareTo(Files.getLastModifiedTime(snapshot)) < 0)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(table))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION && in.readInt() == meaningCount;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static HardDistractorTable read(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("不是有效的近邻表文件");
+            }
+            int size = in.readInt();
+            int k = in.readInt();
+            if (size < 0 || k <= 0 || (long) size * k > Integer.MAX_VALUE
+                    || Files.size(file) != 4L * Integer.BYTES + (long) size * k * Integer.BYTES) {
+                throw new IOException("近邻表文件已损坏");
+            }
+            // 近邻编号必须在 [-1, size) 内，否则出题时越界
+            int[] neighbors = new int[size * k];
+            for (int i = 0; i < neighbors.length; i++) {
+                int neighbor = in.readInt();
+                if (neighbor < -1 || neighbor >= size) {
+                    throw new IOException("近邻表文件已损坏，近邻编号超出范围: " + neighbor);
+                }
+                neighbors[i] = neighbor;
+            }
+            return new HardDistractorTable(size, k, neighbors);
+        }
+    }
+
+    // 先写临时文件再原子替换
+    void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(k);
+            for (int neighbor : neighbors) {
+                out.writeInt(neighbor);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 计算 MinHash 签名：shingle 为词条内的单个字符和相邻两个字符（中文释义通常很短，只用二元组几乎没有重合）
+    private static void sign(List<String> tokens, int[] signatures, int offset) {
+        Arrays.fill(signatures, offset, offset + SIGNATURE, Integer.MAX_VALUE);
+        for (String token : tokens) {
+            for (int i = 0; i < token.length(); i++) {
+                minHash(token.charAt(i), signatures, offset);
+            }
+            for (int i = 0; i + 1 < token.length(); i++) {
+                minHash(token.charAt(i) << 16 | token.charAt(i + 1), signatures, offset);
+            }
+        }
+    }
+
+    private static void minHash(int shingle, int[] signatures, int offset) {
+        for (int i = 0; i < SIGNATURE; i++) {
+            int hash = (int) (mix(shingle * SEEDS_A[i] + SEEDS_B[i]) >>> 33);
+            if (hash < signatures[offset + i]) {
+                signatures[offset + i] = hash;
+            }
+        }
+    }
+
+    private static int agreement(int[] signatures, int a, int b) {
+        int same = 0;
+        for (int i = 0; i < SIGNATURE; i++) {
+            if (signatures[a * SIGNATURE + i] == signatures[b * SIGNATURE + i]) {
+                same++;
+            }
+        }
+        return same;
+    }
+
+    // 两个释义有词条相同或互相包含（如“同步”和“同步的”）时视为近义
+    private static boolean overlaps(String[] a, String[] b) {
+        for (String x : a) {
+            for (String y : b) {
+                String shorter = x.length() <= y.length() ? x : y;
+                String longer = shorter == x ? y : x;
+                if (shorter.equals(longer) || (shorter.length() >= 2 && longer.contains(shorter))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // 把 candidate 放入 id 的前 K 近邻（按 score 降序插入，已存在时忽略）
+    private static void offer(int[] neighbors, byte[] scores, int k, int id, int candidate, int score) {
+        int base = id * k;
+        for (int i = 0; i < k; i++) {
+            if (neighbors[base + i] == candidate) {
+                return;
+            }
+        }
+        if (neighbors[base + k - 1] != -1 && scores[base + k - 1] >= score) {
+            return;
+        }
+        int position = k - 1;
+        while (position > 0 && (neighbors[base + position - 1] == -1 || scores[base + position - 1] < score)) {
+            neighbors[base + position] = neighbors[base + position - 1];
+            scores[base + position] = scores[base + position - 1];
+            position--;
+        }
+        neighbors[base + position] = candidate;
+        scores[base + position] = (byte) score;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
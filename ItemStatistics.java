@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 逐词的流式题目分析：每次交卷后把每道题的对错、所选干扰项和停留时间累加到该单词的计数器上，
+// 不保存单次作答，每个单词占用固定大小的内存。计数器都是无锁的，交卷线程并发写入，随时可以查询。
+// 各计数器分别读取，查询结果与正在进行的写入之间只保证近似一致
+final class ItemStatistics {
+    // 每个单词单独计数的干扰项个数，之后出现的新干扰项计入“其他”
+    static final int DISTRACTOR_SLOTS = 8;
+
+    private final Map<String, WordStats> words = new ConcurrentHashMap<>();
+
+    // 累加一次考试结果
+    void record(ExamSession.Result result) {
+        for (ExamSession.Answer answer : result.answers) {
+            words.computeIfAbsent(answer.word, w -> new WordStats()).record(answer);
+        }
+    }
+
+    // 已有作答记录的单词数
+    int size() {
+        return words.size();
+    }
+
+    // 单个单词的统计，没有作答记录时为 null
+    Summary summary(String word) {
+        WordStats stats = words.get(word);
+        return stats == null ? null : stats.summary(word);
+    }
+
+    // 作答次数不少于 minAttempts 的单词中最难的 limit 个，按难度从高到低排列。
+    // 只遍历单词，不回看历史作答
+    List<Summary> hardest(int limit, long minAttempts) {
+        List<Summary> candidates = new ArrayList<>();
+        words.forEach((word, stats) -> {
+            if (stats.attempts.sum() >= minAttempts) {
+                candidates.add(stats.summary(word));
+            }
+        });
+        candidates.sort(Comparator.comparingDouble(Summary::difficulty).reversed());
+        return candidates.subList(0, Math.min(limit, candidates.size()));
+    }
+
+    // 所有单词停留时间直方图的合并
+    DwellHistogram overallDwell() {
+        DwellHistogram merged = new DwellHistogram();
+        for (WordStats stats : words.values()) {
+            merged.merge(stats.dwell);
+        }
+        return merged;
+    }
+
+    // 单个单词的计数器
+    private static final class WordStats {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        final LongAdder unanswered = new LongAdder();
+        // 干扰项槽位：释义写入空槽后不再改变，之后只增加对应的计数
+        final AtomicReferenceArray<String> distractors = new AtomicReferenceArray<>(DISTRACTOR_SLOTS);
+        final AtomicLongArray distractorCounts = new AtomicLongArray(DISTRACTOR_SLOTS);
+        final LongAdder otherDistractors = new LongAdder();
+        final DwellHistogram dwell = new DwellHistogram();
+
+        void record(ExamSession.Answer answer) {
+            attempts.increment();
+            if (answer.correct) {
+                correct.increment();
+            } else if (answer.userAnswer == null) {
+                unanswered.increment();
+            } else {
+                countDistractor(answer.userAnswer);
+            }
+            // 从旧日志回放的记录没有停留时间
+            if (answer.dwellMillis > 0) {
+                dwell.record(answer.dwellMillis);
+            }
+        }
+
+        private void countDistractor(String meaning) {
+            for (int i = 0; i < DISTRACTOR_SLOTS; i++) {
+                String slot = distractors.get(i);
+                if (slot == null) {
+                    if (distractors.compareAndSet(i, null, meaning)) {
+                        distractorCounts.incrementAndGet(i);
+                        return;
+                    }
+                    slot = distractors.get(i);
+                }
+                if (slot.equals(meaning)) {
+                    distractorCounts.incrementAndGet(i);
+                    return;
+                }
+            }
+            otherDistractors.increment();
+        }
+
+        Summary summary(String word) {
+            int filled = 0;
+            String[] meanings = new String[DISTRACTOR_SLOTS];
+            long[] counts = new long[DISTRACTOR_SLOTS];
+            for (int i = 0; i < DISTRACTOR_SLOTS; i++) {
+                String meaning = distractors.get(i);
+                if (meaning != null) {
+                    meanings[filled] = meaning;
+                    counts[filled] = distractorCounts.get(i);
+                    filled++;
+                }
+            }
+            // 按被选次数从多到少排列，槽位很少，插入排序即可
+            for (int i = 1; i < filled; i++) {
+                for (int j = i; j > 0 && counts[j] > counts[j - 1]; j--) {
+                    long count = counts[j];
+                    counts[j] = counts[j - 1];
+                    counts[j - 1] = count;
+                    String meaning = meanings[j];
+                    meanings[j] = meanings[j - 1];
+                    meanings[j - 1] = meaning;
+                }
+            }
+            DwellHistogram copy = new DwellHistogram();
+            copy.merge(dwell);
+            return new Summary(word, attempts.sum(), correct.sum(), unanswered.sum(),
+                    Arrays.copyOf(meanings, filled), Arrays.copyOf(counts, filled), otherDistractors.sum(), copy);
+        }
+    }
+
+    // 一个单词的统计快照
+    static final class Summary {
+        final String word;
+        final long attempts;
+        final long correct;
+        final long unanswered;
+        // 被选中的干扰项及次数，按次数从多到少；槽位之外的干扰项合计在 otherDistractors
+        final String[] distractors;
+        final long[] distractorCounts;
+        final long otherDistractors;
+        final DwellHistogram dwell;
+
+        Summary(String word, long attempts, long correct, long unanswered, String[] distractors,
+                long[] distractorCounts, long otherDistractors, DwellHistogram dwell) {
+            this.word = word;
+            this.attempts = attempts;
+            this.correct = correct;
+            this.unanswered = unanswered;
+            this.distractors = distractors;
+            this.distractorCounts = distractorCounts;
+            this.otherDistractors = otherDistractors;
+            this.dwell = dwell;
+        }
+
+        // 难度：答错（含未作答）的比例，加一平滑，作答次数少的单词不会落在 0 或 1 上
+        double difficulty() {
+            return (attempts - correct + 1.0) / (attempts + 2.0);
+        }
+    }
+
+    // 停留时间直方图：固定 16 个按 2 的幂划分的桶，第 0 桶为 100ms 以内，第 i 桶为 [100·2^(i-1), 100·2^i) 毫秒，
+    // 最后一桶收纳所有更长的停留。桶数固定，两个直方图逐桶相加即可合并
+    static final class DwellHistogram {
+        static final int BUCKETS = 16;
+        private static final long UNIT_MILLIS = 100;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder totalMillis = new LongAdder();
+
+        void record(long millis) {
+            buckets.incrementAndGet(bucketOf(millis));
+            totalMillis.add(millis);
+        }
+
+        void merge(DwellHistogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = other.buckets.get(i);
+                if (count != 0) {
+                    buckets.addAndGet(i, count);
+                }
+            }
+            totalMillis.add(other.totalMillis.sum());
+        }
+
+        long count() {
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        long meanMillis() {
+            long count = count();
+            return count == 0 ? 0 : totalMillis.sum() / count;
+        }
+
+        // 分位数所在桶的上界（毫秒），没有数据时为 0
+        long percentileMillis(double quantile) {
+            long count = count();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        static int bucketOf(long millis) {
+            return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, millis) / UNIT_MILLIS));
+        }
+
+        private static long upperBound(int bucket) {
+            return UNIT_MILLIS << bucket;
+        }
+    }
+}
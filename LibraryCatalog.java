@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 单词库目录：除常驻的默认词库外，目录下每个 <名称>.txt 是一个独立的领域词库（医学、法律、IT 等）。
+// 领域词库第一次使用时才解析并映射快照（<名称>.snapshot），加载后放进按词条数计重的 LRU 缓存：
+// 词条总数超出预算时淘汰最久未使用的空闲词库，正在考试中使用的词库不会被淘汰。
+// 常驻内存因此随实际在用的词库增减，而不随目录中词库的总量增长
+final class LibraryCatalog {
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    // 缓存中的一个领域词库；users 为未归还的句柄数
+    private static final class Entry {
+        final WordLibraryVersion version;
+        int users;
+
+        Entry(WordLibraryVersion version) {
+            this.version = version;
+        }
+    }
+
+    private final Path directory;
+    private final long maxCachedEntries;
+    private final Map<String, LibraryHandle> pinned = new ConcurrentHashMap<>();
+    // 以下字段由 this 保护；cache 按访问顺序排列，最久未使用的在前
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Entry>> loading = new HashMap<>();
+    private long cachedEntries;
+
+    LibraryCatalog(Path directory, long maxCachedEntries) {
+        this.directory = directory;
+        this.maxCachedEntries = maxCachedEntries;
+    }
+
+    // 登记一个常驻词库，不计入缓存预算，也不会被淘汰
+    void pin(LibraryHandle handle) {
+        pinned.put(handle.name, handle);
+    }
+
+    // 所有可选的词库名：常驻词库在前，其余按名称排序；目录不存在时只有常驻词库
+    List<String> names() {
+        List<String> names = new ArrayList<>(pinned.keySet());
+        Collections.sort(names);
+        List<String> domains = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEXT_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - TEXT_SUFFIX.length());
+                if (!pinned.containsKey(name)) {
+                    domains.add(name);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // 没有领域词库
+        } catch (IOException e) {
+            System.err.println("读取单词库目录失败: " + e.getMessage());
+        }
+        Collections.sort(domains);
+        names.addAll(domains);
+        return names;
+    }
+
+    // 取得词库的句柄，未加载时在调用线程上加载；同一词库的并发请求只加载一次
+    LibraryHandle acquire(String name) throws IOException {
+        LibraryHandle handle = pinned.get(name);
+        if (handle != null) {
+            return handle;
+        }
+        CompletableFuture<Entry> future;
+        boolean owner = false;
+        synchronized (this) {
+            Entry cached = cache.get(name);
+            if (cached != null) {
+                cached.users++;
+                return handleOf(name, cached);
+            }
+            future = loading.get(name);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                loading.put(name, future);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            Entry entry;
+            try {
+                entry = new Entry(load(name));
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    loading.remove(name);
+                }
+                future.completeExceptionally(e);
+                throw e;
+            }
+            synchronized (this) {
+                loading.remove(name);
+                entry.users++;
+                cache.put(name, entry);
+                cachedEntries += entry.version.size();
+                evictIdle();
+            }
+            future.complete(entry);
+            return handleOf(name, entry);
+        }
+
+        Entry entry;
+        try {
+            entry = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // 加载完成到这里之间加载者可能已经归还，词库被淘汰后又被别人重新加载：
+            // 缓存中已有别的实例时改用它，缓存中没有时把这份重新放回并计入预算，避免同一词库有两份未计数的副本
+            Entry cached = cache.get(name);
+            if (cached != null) {
+                entry = cached;
+            } else {
+                cache.put(name, entry);
+                cachedEntries += entry.version.size();
+            }
+            entry.users++;
+            evictIdle();
+        }
+        return handleOf(name, entry);
+    }
+
+    // 缓存中的领域词库数和词条总数
+    synchronized int cachedLibraries() {
+        return cache.size();
+    }
+
+    synchronized long cachedEntries() {
+        return cachedEntries;
+    }
+
+    private LibraryHandle handleOf(String name, Entry entry) {
+        return new LibraryHandle(name, () -> entry.version, () -> release(entry));
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.users--;
+        if (entry.users == 0) {
+            evictIdle();
+        }
+    }
+
+    // 从最久未使用的一端淘汰空闲词库，直到词条总数回到预算以内
+    private void evictIdle() {
+        Iterator<Entry> iterator = cache.values().iterator();
+        while (cachedEntries > maxCachedEntries && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.users == 0) {
+                iterator.remove();
+                cachedEntries -= entry.version.size();
+                Metrics.counter("library.evictions").increment();
+            }
+        }
+    }
+
+    // 读取领域词库：快照缺失、过期或损坏时从文本重建；快照写不进去时退回内存中的单词表
+    private WordLibraryVersion load(String name) throws IOException {
+        if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.startsWith(".")) {
+            throw new IOException("无效的单词库名称: " + name);
+        }
+        Path text = directory.resolve(name + TEXT_SUFFIX);
+        Path snapshot = directory.resolve(name + SNAPSHOT_SUFFIX);
+        long started = System.nanoTime();
+        ExamEvents.LibraryLoad event = new ExamEvents.LibraryLoad();
+        event.begin();
+        if (!Files.exists(text)) {
+            throw new IOException("单词库不存在: " + name);
+        }
+        WordLibraryVersion version = WordLibraryVersion.load(1, text, snapshot);
+        event.source = (version.snapshotBacked ? "catalog:" : "catalog-text:") + name;
+        event.entries = version.size();
+        event.commit();
+        Metrics.histogram("library.load").recordSince(started);
+        return version;
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// 对目录中某个单词库的一次使用：持有期间该词库不会被缓存淘汰，用完后 close 归还。
+// 常驻词库（默认词库）的句柄 close 不做任何事，version() 总是返回它的当前版本
+final class LibraryHandle implements AutoCloseable {
+    final String name;
+    private final Supplier<WordLibraryVersion> source;
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    LibraryHandle(String name, Supplier<WordLibraryVersion> source, Runnable onClose) {
+        this.name = name;
+        this.source = source;
+        this.onClose = onClose;
+    }
+
+    WordLibraryVersion version() {
+        return source.get();
+    }
+
+    // 重复调用只归还一次
+    @Override
+    public void close() {
+        if (onClose != null && closed.compareAndSet(false, true)) {
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// 单词库检索索引，单词库加载后构建一次：
+//   前缀索引：按字典序排列的单词编号数组（每个单词 4 字节），两次二分查找得到前缀区间；
+//   反向索引：释义按“；”等分隔符切成词条，词条到单词编号的倒排表，用于由释义反查单词。
+// 两者都只保存编号，单词和释义仍从 WordIndex / 单词库中取，快照加载时不会把词库复制进堆
+final class LibrarySearchIndex {
+    // 释义中的分隔符：中英文分号、逗号、顿号、斜杠和括号
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[；;，,、/（）()\\s]+");
+    private static final int[] NO_IDS = new int[0];
+
+    private final WordIndex words;
+    // 按单词字典序排列的单词编号
+    private final int[] sorted;
+    // 释义词条 -> 升序单词编号
+    private final Map<String, int[]> postings;
+
+    private LibrarySearchIndex(WordIndex words, int[] sorted, Map<String, int[]> postings) {
+        this.words = words;
+        this.sorted = sorted;
+        this.postings = postings;
+    }
+
+    static LibrarySearchIndex build(WordIndex words, Map<String, String> wordLibrary) {
+        int n = words.size();
+        String[] keys = new String[n];
+        Integer[] order = new Integer[n];
+        Map<String, IntList> lists = new HashMap<>();
+        for (int id = 0; id < n; id++) {
+            keys[id] = words.word(id);
+            order[id] = id;
+            String meaning = wordLibrary.get(keys[id]);
+            if (meaning == null) {
+                continue;
+            }
+            for (String token : tokens(meaning)) {
+                IntList list = lists.computeIfAbsent(token, t -> new IntList());
+                // 同一释义里重复出现的词条只记一次（编号递增，只需看最后一个）
+                if (list.size == 0 || list.values[list.size - 1] != id) {
+                    list.add(id);
+                }
+            }
+        }
+        // 快照的单词编号本身就是排序位置，已有序时跳过排序
+        boolean inOrder = true;
+        for (int id = 1; id < n && inOrder; id++) {
+            inOrder = keys[id - 1].compareTo(keys[id]) <= 0;
+        }
+        if (!inOrder) {
+            Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        }
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = order[i];
+        }
+
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        lists.forEach((token, list) -> postings.put(token, Arrays.copyOf(list.values, list.size)));
+        return new LibrarySearchIndex(words, sorted, postings);
+    }
+
+    // 以 prefix 开头的单词数
+    int countPrefix(String prefix) {
+        return boundary(prefix, true) - boundary(prefix, false);
+    }
+
+    // 以 prefix 开头的单词，按字典序最多返回 limit 个
+    List<String> wordsWithPrefix(String prefix, int limit) {
+        int from = boundary(prefix, false);
+        int to = from + Math.min(boundary(prefix, true) - from, Math.max(0, limit));
+        List<String> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(words.word(sorted[i]));
+        }
+        return result;
+    }
+
+    // 释义中同时包含 query 所有词条的单词，按编号顺序最多返回 limit 个；
+    // query 可以是完整释义（由正确释义反查单词）或其中的一段
+    List<String> wordsForMeaning(String query, int limit) {
+        List<String> tokens = tokens(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // 从最短的倒排表开始求交集
+        int[][] lists = new int[tokens.size()][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.getOrDefault(tokens.get(i), NO_IDS);
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        List<String> result = new ArrayList<>();
+        int[] cursors = new int[lists.length];
+        outer:
+        for (int id : lists[0]) {
+            for (int i = 1; i < lists.length; i++) {
+                cursors[i] = advance(lists[i], cursors[i], id);
+                if (cursors[i] >= lists[i].length) {
+                    break outer;
+                }
+                if (lists[i][cursors[i]] != id) {
+                    continue outer;
+                }
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(words.word(id));
+        }
+        return result;
+    }
+
+    // 把释义切成去掉首尾空白、转为小写的词条
+    static List<String> tokens(String meaning) {
+        List<String> tokens = new ArrayList<>(4);
+        for (String part : TOKEN_SEPARATORS.split(meaning)) {
+            String token = part.trim().toLowerCase(Locale.ROOT);
+            if (!token.isEmpty() && !tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // 在有序数组中从 from 开始找第一个 >= target 的位置（倍增后二分）
+    private static int advance(int[] ids, int from, int target) {
+        if (from >= ids.length || ids[from] >= target) {
+            return from;
+        }
+        // 此时 ids[low] < target
+        int low = from;
+        int step = 1;
+        while (low + step < ids.length && ids[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        int high = Math.min(low + step, ids.length);
+        low++;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // 前缀区间的边界：upper 为 false 时返回第一个不小于 prefix 的位置，
+    // 为 true 时返回第一个大于 prefix 且不以 prefix 开头的位置
+    private int boundary(String prefix, boolean upper) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String word = words.word(sorted[mid]);
+            int cmp = word.compareTo(prefix);
+            boolean before = cmp < 0 || (upper && word.startsWith(prefix));
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // 构建期使用的可增长 int 数组
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// 模拟考生压测：在进程内让 N 名考生以给定并发走完整个考试流程
+// （登录校验 -> 出卷 -> 逐题作答（可设思考时间） -> 交卷落盘 -> 更新排名），
+// 输出每秒完成的考试数和每个步骤的 p50/p99 延迟，为容量规划提供实测数据。
+// 正式计时前先用一批预热考生跑一遍（类加载、JIT 编译），预热数据不计入报告。
+// 凭据文件按 user_info.txt 的格式生成，考试日志写在临时目录中，运行结束后删除，不影响正式数据。失败的考生按异常类型计数，并输出第一个异常的堆栈。
+// 运行方式：java LoadTest [考生数] [并发数] [平均思考时间ms] [单词库文本]
+final class LoadTest {
+    private static final int QUESTION_COUNT = 10;
+    private static final String PASSWORD = "123456";
+
+    private static final String[] STEPS = {"login", "paper", "answer", "submit", "ranking", "session"};
+
+    private final CredentialIndex credentials;
+    private final Map<String, String> wordLibrary;
+    private final MeaningIndex meaningIndex;
+    private final AdaptiveQuestionSelector selector;
+    private final PaperFactory papers;
+    private final ExamJournal journal;
+    private final Map<String, Metrics.Histogram> latencies = new HashMap<>();
+    private final LongAdder failures = new LongAdder();
+    // 按异常类型计数失败原因，并保留第一个异常用于输出堆栈
+    private final Map<String, LongAdder> failureCauses = new ConcurrentHashMap<>();
+    private final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+    // 每轮压测使用独立的排名，预热轮的成绩不会影响正式轮的排名规模
+    private RankingManager ranking;
+
+    private LoadTest(CredentialIndex credentials, Map<String, String> wordLibrary, int concurrency, ExamJournal journal) {
+        this.credentials = credentials;
+        this.wordLibrary = wordLibrary;
+        WordIndex wordIndex = WordIndex.of(wordLibrary);
+        this.meaningIndex = MeaningIndex.of(wordLibrary);
+        this.selector = new AdaptiveQuestionSelector(wordIndex);
+        this.papers = new PaperFactory(wordLibrary, wordIndex, meaningIndex, QUESTION_COUNT, Math.max(1, concurrency));
+        this.journal = journal;
+        resetStats();
+    }
+
+    private void resetStats() {
+        for (String step : STEPS) {
+            latencies.put(step, new Metrics.Histogram());
+        }
+        failures.reset();
+        failureCauses.clear();
+        firstFailure.set(null);
+        ranking = new RankingManager(QUESTION_COUNT * 10);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        long thinkMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        Map<String, String> wordLibrary = args.length > 3
+                ? WordLibraryParser.parse(Paths.get(args[3]))
+                : syntheticLibrary(10_000);
+
+        Path directory = Files.createTempDirectory("exam-load-test");
+        LoadTest test = null;
+        try {
+            Path users = directory.resolve("user_info.txt");
+            int warmup = Math.min(students, Math.max(concurrency, 200));
+            writeUsers(users, "warmup", warmup);
+            writeUsers(users, "student", students);
+            CredentialIndex credentials = CredentialIndex.load(users);
+            try (ExamJournal journal = ExamJournal.open(directory.resolve("exam_journal.bin"), result -> { })) {
+                test = new LoadTest(credentials, wordLibrary, concurrency, journal);
+                System.out.printf("考生 %d，并发 %d，平均思考时间 %d ms，词库 %d 词，%s%n",
+                        students, concurrency, thinkMillis, wordLibrary.size(),
+                        VirtualThreads.supported() ? "虚拟线程" : "平台线程");
+                test.run("warmup", warmup, concurrency, 0);
+                test.resetStats();
+                long elapsed = test.run("student", students, concurrency, thinkMillis);
+                test.report(students, elapsed);
+            }
+        } finally {
+            if (test != null) {
+                test.papers.close();
+            }
+            deleteRecursively(directory);
+        }
+    }
+
+    // 并发 concurrency 个考生循环领取编号，直到 prefix0..prefix(students-1) 全部交卷，返回总耗时（纳秒）
+    private long run(String prefix, int students, int concurrency, long thinkMillis) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("load-student");
+        long started = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            long seed = i;
+            executor.execute(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                int student;
+                while ((student = next.getAndIncrement()) < students) {
+                    try {
+                        takeExam(prefix + student, random, thinkMillis);
+                    } catch (Exception e) {
+                        failures.increment();
+                        failureCauses.computeIfAbsent(e.getClass().getName(), c -> new LongAdder()).increment();
+                        firstFailure.compareAndSet(null, e);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        return System.nanoTime() - started;
+    }
+
+    // 一名考生的完整流程，与 WordExamSystem 的登录和交卷路径一致
+    private void takeExam(String username, SplittableRandom random, long thinkMillis) throws Exception {
+        long sessionStart = System.nanoTime();
+
+        long start = System.nanoTime();
+        if (!credentials.verify(username, PASSWORD)) {
+            throw new IllegalStateException("登录失败: " + username);
+        }
+        latencies.get("login").recordSince(start);
+
+        start = System.nanoTime();
+        ExamSession session;
+        if (selector.hasHistory(username)) {
+            List<String> words = selector.select(username, QUESTION_COUNT, random);
+            session = ExamSession.forWords(username, wordLibrary, meaningIndex, words, random);
+        } else {
+            session = new ExamSession(username, wordLibrary, papers.take());
+        }
+        session.start(System.currentTimeMillis(), TimeUnit.MINUTES.toMillis(15));
+        latencies.get("paper").recordSince(start);
+
+        for (int i = 0; i < session.questionCount(); i++) {
+            if (thinkMillis > 0) {
+                Thread.sleep(random.nextLong(2 * thinkMillis + 1));
+            }
+            start = System.nanoTime();
+            session.moveTo(i);
+            // 七成概率答对
+            int option = random.nextInt(10) < 7 ? session.correctOption(i) : random.nextInt(ExamSession.OPTION_COUNT);
+            session.answer(i, option);
+            latencies.get("answer").recordSince(start);
+        }
+
+        // 交卷：评分、更新权重并等待日志落盘
+        start = System.nanoTime();
+        ExamSession.Result result = session.grade();
+        selector.update(result);
+        journal.append(result).get();
+        latencies.get("submit").recordSince(start);
+
+        start = System.nanoTime();
+        ranking.record(username, result.score());
+        latencies.get("ranking").recordSince(start);
+
+        latencies.get("session").recordSince(sessionStart);
+    }
+
+    private void report(int students, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("完成 %d 场考试，失败 %d，用时 %.2f s，吞吐 %.1f 场/秒%n",
+                students - failures.sum(), failures.sum(), seconds, (students - failures.sum()) / seconds);
+        failureCauses.forEach((cause, count) -> System.out.printf("  失败原因 %s: %d%n", cause, count.sum()));
+        Exception first = firstFailure.get();
+        if (first != null) {
+            System.out.println("第一个失败的堆栈：");
+            first.printStackTrace(System.out);
+        }
+        System.out.printf("%-10s %10s %12s %12s %12s%n", "step", "count", "p50(us)", "p99(us)", "max(us)");
+        for (String step : STEPS) {
+            Metrics.Histogram histogram = latencies.get(step);
+            System.out.printf("%-10s %10d %12.1f %12.1f %12.1f%n", step, histogram.count(),
+                    histogram.percentile(0.50) / 1e3, histogram.percentile(0.99) / 1e3, histogram.max() / 1e3);
+        }
+    }
+
+    private static void writeUsers(Path file, String prefix, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(prefix + i + "," + PASSWORD);
+                writer.newLine();
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static Map<String, String> syntheticLibrary(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        Map<String, String> library = new HashMap<>(size * 4 / 3 + 1);
+        while (library.size() < size) {
+            int meaning = random.nextInt(size / 2);
+            library.put("w" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36), "释义" + meaning + "；含义" + (meaning % 97));
+        }
+        return library;
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// 释义索引：把单词库中所有不同的释义编号为 0..size()-1，供干扰项抽样按整数下标随机访问
+interface MeaningIndex {
+    // 不同释义的数量
+    int size();
+
+    // 按编号取释义
+    String meaning(int id);
+
+    // 查找释义的编号，不存在时返回 -1
+    int idOf(String meaning);
+
+    // 基于内存单词库构建数组索引（只需在单词库加载后构建一次）
+    static MeaningIndex of(Map<String, String> wordLibrary) {
+        Set<String> distinct = new LinkedHashSet<>(wordLibrary.values());
+        String[] meanings = distinct.toArray(new String[0]);
+        Map<String, Integer> ids = new HashMap<>(meanings.length * 4 / 3 + 1);
+        for (int i = 0; i < meanings.length; i++) {
+            ids.put(meanings[i], i);
+        }
+        return new ArrayMeaningIndex(meanings, ids);
+    }
+}
+
+// 数组实现：释义按编号存放在 String[] 中
+final class ArrayMeaningIndex implements MeaningIndex {
+    private final String[] meanings;
+    private final Map<String, Integer> ids;
+
+    ArrayMeaningIndex(String[] meanings, Map<String, Integer> ids) {
+        this.meanings = meanings;
+        this.ids = ids;
+    }
+
+    @Override
+    public int size() {
+        return meanings.length;
+    }
+
+    @Override
+    public String meaning(int id) {
+        return meanings[id];
+    }
+
+    @Override
+    public int idOf(String meaning) {
+        Integer id = ids.get(meaning);
+        return id == null ? -1 : id;
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.swing.SwingUtilities;
+
+// 进程内指标注册表：按名字登记计数器和延迟直方图，记录时无锁，
+// 定期把快照写到本地文件，生产环境不接 profiler 也能看到时间花在哪里
+final class Metrics {
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Histogram EDT_QUEUE_DELAY = histogram("edt.queue_delay");
+
+    private static ScheduledExecutorService scheduler;
+
+    private Metrics() {
+    }
+
+    static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    // 当前所有指标的文本快照，按名字排序
+    static String snapshot() {
+        StringBuilder out = new StringBuilder();
+        out.append("# ").append(Instant.now()).append('\n');
+        new TreeMap<>(COUNTERS).forEach((name, counter) ->
+                out.append("counter ").append(name).append(' ').append(counter.get()).append('\n'));
+        new TreeMap<>(HISTOGRAMS).forEach((name, histogram) -> {
+            long count = histogram.count();
+            out.append("histogram ").append(name).append(" count=").append(count);
+            if (count > 0) {
+                out.append(String.format(" mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+                        histogram.mean() / 1e3, histogram.percentile(0.50) / 1e3, histogram.percentile(0.90) / 1e3,
+                        histogram.percentile(0.99) / 1e3, histogram.max() / 1e3));
+            }
+            out.append('\n');
+        });
+        return out.toString();
+    }
+
+    // 把快照写入文件：先写临时文件再原子替换，读取方不会看到写了一半的内容
+    static void export(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(snapshot());
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 启动后台导出线程：每 periodSeconds 秒导出一次快照，退出时再导出一次；
+    // 同时每 probeMillis 毫秒向 EDT 投递一个空任务，测量事件队列的排队延迟；probeMillis 不大于 0 时不探测
+    // （无界面模式下探测会启动 AWT 事件线程）
+    static synchronized void start(Path file, long periodSeconds, long probeMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> exportQuietly(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        if (probeMillis > 0) {
+            scheduler.scheduleAtFixedRate(Metrics::probeEventQueue, probeMillis, probeMillis, TimeUnit.MILLISECONDS);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> exportQuietly(file), "metrics-shutdown"));
+    }
+
+    private static void exportQuietly(Path file) {
+        try {
+            export(file);
+        } catch (IOException e) {
+            System.err.println("导出性能指标失败: " + e.getMessage());
+        }
+    }
+
+    private static void probeEventQueue() {
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            long delay = System.nanoTime() - posted;
+            EDT_QUEUE_DELAY.record(delay);
+            ExamEvents.EdtQueueDelay event = new ExamEvents.EdtQueueDelay();
+            if (event.shouldCommit()) {
+                event.delay = delay;
+                event.commit();
+            }
+        });
+    }
+
+    // 单调递增计数器
+    static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        void increment() {
+            value.increment();
+        }
+
+        void add(long delta) {
+            value.add(delta);
+        }
+
+        long get() {
+            return value.sum();
+        }
+    }
+
+    // 延迟直方图（纳秒）：每个 2 的幂区间再等分 8 段，相对误差不超过 12.5%，
+    // 固定 488 个桶覆盖整个 long 范围，记录只做一次原子加
+    static final class Histogram {
+        private static final int SUB_BUCKETS = 8;
+        private static final int SUB_BITS = 3;
+        private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(bucketOf(value));
+            count.increment();
+            sum.add(value);
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        // 记录从 startNanos（System.nanoTime）到现在的耗时
+        void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        // 第 q 分位数，返回所在桶的上界
+        long percentile(double q) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+            return lower + (1L << (exponent - SUB_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 试卷预生成池：后台线程预先出好若干份均匀抽题的试卷，登录时直接取用，取走后异步补足。
+// 池子为空（例如启动后立刻有大量登录）时在调用线程上现出一份，不会阻塞
+final class PaperFactory implements AutoCloseable {
+    private final Map<String, String> wordLibrary;
+    private final WordIndex wordIndex;
+    private final MeaningIndex meaningIndex;
+    private final int questionCount;
+    private final int capacity;
+    private final BlockingQueue<ExamSession.Paper> ready;
+    private final ExecutorService executor;
+    // 已提交但尚未完成的出卷任务数，与池中试卷数之和不超过容量
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // 每个出卷任务从这里拆出独立的随机源
+    private final SplittableRandom seeds = new SplittableRandom();
+    // 近邻表构建完成前为 null，此时只用均匀抽样的干扰项
+    private volatile HardDistractorTable hardDistractors;
+    private volatile boolean closed;
+
+    PaperFactory(Map<String, String> wordLibrary, WordIndex wordIndex, MeaningIndex meaningIndex,
+                 int questionCount, int capacity) {
+        this.wordLibrary = wordLibrary;
+        this.wordIndex = wordIndex;
+        this.meaningIndex = meaningIndex;
+        this.questionCount = questionCount;
+        this.capacity = capacity;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        this.executor = VirtualThreads.newPerTaskExecutor("paper-factory");
+        refill();
+    }
+
+    // 取一份试卷，并在后台补足池子
+    ExamSession.Paper take() {
+        ExamSession.Paper paper = ready.poll();
+        if (paper == null) {
+            paper = generate(nextRandom());
+        }
+        refill();
+        return paper;
+    }
+
+    // 按给定单词现出一份试卷（自适应选题），干扰项来源与池中试卷相同
+    ExamSession.Paper paperFor(List<String> words, SplittableRandom random) {
+        return ExamSession.paperFor(wordLibrary, meaningIndex, hardDistractors, words, random);
+    }
+
+    // 出卷所用的单词库；考试会话须使用同一份单词表
+    Map<String, String> wordLibrary() {
+        return wordLibrary;
+    }
+
+    // 之后生成的试卷改用近邻表中的难干扰项；池中已有的试卷照常发出
+    void useHardDistractors(HardDistractorTable table) {
+        hardDistractors = table;
+    }
+
+    // 池中现有的试卷数
+    int available() {
+        return ready.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        ready.clear();
+    }
+
+    private void refill() {
+        while (!closed) {
+            int pending = inFlight.get();
+            if (pending + ready.size() >= capacity) {
+                return;
+            }
+            if (!inFlight.compareAndSet(pending, pending + 1)) {
+                continue;
+            }
+            SplittableRandom random = nextRandom();
+            try {
+                executor.execute(() -> {
+                    try {
+                        ready.offer(generate(random));
+                    } catch (RuntimeException e) {
+                        System.err.println("预生成试卷失败: " + e.getMessage());
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 执行器已关闭
+                inFlight.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private ExamSession.Paper generate(SplittableRandom random) {
+        return ExamSession.randomPaper(wordLibrary, wordIndex, meaningIndex, hardDistractors, questionCount, random);
+    }
+
+    private SplittableRandom nextRandom() {
+        synchronized (seeds) {
+            return seeds.split();
+        }
+    }
+}
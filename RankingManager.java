@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 考试排名：每个用户只以最好成绩占一个名次，可在任意线程并发记录成绩和查询名次，不涉及界面。
+// 每个实例是一份独立的排名，考试系统只用一个，压测等场景可以各自新建互不影响
+final class RankingManager {
+    // 一个用户的最好成绩，seq 保证同分时先取得该成绩的排在前面
+    static final class Entry {
+        final long seq;
+        final String username;
+        final int score;
+
+        Entry(long seq, String username, int score) {
+            this.seq = seq;
+            this.username = username;
+            this.score = score;
+        }
+    }
+
+    // 分数上限，超出范围的分数按边界计入直方图
+    private final int maxScore;
+    private final AtomicLong sequence = new AtomicLong();
+    // 每个用户一项，按分数降序、提交顺序升序排列的跳表，更新 O(log n)，前 N 名直接顺序读取
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(
+            Comparator.<Entry>comparingInt(e -> -e.score).thenComparingLong(e -> e.seq));
+    // 每个用户的最好成绩；更新时在该用户的键上加锁，同时替换跳表和直方图中的旧成绩
+    private final ConcurrentHashMap<String, Entry> bestByUser = new ConcurrentHashMap<>();
+    // 最好成绩的分数直方图上的树状数组，O(log S) 求出分数更高的用户数
+    private final AtomicLongArray scoreTree;
+    private final AtomicLong total = new AtomicLong();
+    private final Metrics.Histogram updateLatency = Metrics.histogram("ranking.update");
+
+    RankingManager(int maxScore) {
+        this.maxScore = maxScore;
+        this.scoreTree = new AtomicLongArray(maxScore + 2);
+    }
+
+    // 记录一次成绩，超过该用户原有最好成绩时替换之；返回该用户当前名次
+    int record(String username, int score) {
+        long started = System.nanoTime();
+        ExamEvents.RankingUpdate event = new ExamEvents.RankingUpdate();
+        event.begin();
+        bestByUser.compute(username, (user, old) -> {
+            if (old != null && old.score >= score) {
+                return old;
+            }
+            Entry best = new Entry(sequence.getAndIncrement(), user, score);
+            if (old == null) {
+                total.incrementAndGet();
+            } else {
+                ranking.remove(old);
+                addToTree(old.score, -1);
+            }
+            ranking.add(best);
+            addToTree(score, 1);
+            return best;
+        });
+        int rank = rankOf(username);
+        event.username = username;
+        event.rank = rank;
+        event.commit();
+        updateLatency.recordSince(started);
+        return rank;
+    }
+
+    // 用户最好成绩的名次（1 + 最好成绩更高的用户数，同分同名次），没有成绩时返回 -1
+    int rankOf(String username) {
+        Entry best = bestByUser.get(username);
+        if (best == null) {
+            return -1;
+        }
+        long notHigher = 0;
+        for (int i = clamp(best.score) + 1; i > 0; i -= i & -i) {
+            notHigher += scoreTree.get(i);
+        }
+        return (int) Math.max(1, total.get() - notHigher + 1);
+    }
+
+    // 当前前 n 名，每个用户至多出现一次
+    List<Entry> top(int n) {
+        List<Entry> top = new ArrayList<>(n);
+        for (Entry entry : ranking) {
+            if (top.size() >= n) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    // 有成绩的用户数
+    long size() {
+        return total.get();
+    }
+
+    private void addToTree(int score, int delta) {
+        for (int i = clamp(score) + 1; i < scoreTree.length(); i += i & -i) {
+            scoreTree.addAndGet(i, delta);
+        }
+    }
+
+    private int clamp(int score) {
+        return Math.max(0, Math.min(maxScore, score));
+    }
+}
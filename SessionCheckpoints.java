@@ -0,0 +1,287 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 考试进度检查点：作答、翻题时只在内存中记下最新状态（几十个 int 的拷贝），
+// 由后台线程延迟 COALESCE_MILLIS 后合并写盘，连续点击单选按钮只产生一次写入，EDT 上没有任何磁盘操作。
+// 每个用户一个文件，先写临时文件再原子替换；进程崩溃后重新登录即可从检查点恢复试卷、作答和剩余时间。
+// 检查点只在出卷的同一个单词库中恢复，且每道题的单词在当前版本中的释义必须仍是试卷上的正确选项，
+// 单词库已被替换或修改时不会拿旧试卷对着新单词作答；格式不对、数值越界或与单词库不符的检查点按不存在处理并删除
+//
+// 文件格式：int magic, int version, UTF 用户名, UTF 单词库名, long 开始时间, long 截止时间, int 当前题号, int 题数,
+//           每题：UTF 单词, byte 正确位置, byte 作答位置, byte 选项数, 每个选项：boolean 是否存在, UTF 选项
+final class SessionCheckpoints implements AutoCloseable {
+    private static final int MAGIC = 0x45584350; // "EXCP"
+    private static final int VERSION = 2;
+    // 每道题至少占的字节数（空单词、正确位置、作答位置、选项数），用来在分配数组前检查题数
+    private static final int MIN_QUESTION_BYTES = 5;
+    // 合并写入的等待时间
+    private static final long COALESCE_MILLIS = 200;
+
+    // 某一时刻的会话状态；试卷本身不可变，直接引用
+    private static final class State {
+        final String username;
+        final String library;
+        final ExamSession.Paper paper;
+        final int[] answers;
+        final int currentIndex;
+        final long startedAtMillis;
+        final long deadlineMillis;
+
+        State(String username, String library, ExamSession.Paper paper, int[] answers, int currentIndex,
+              long startedAtMillis, long deadlineMillis) {
+            this.username = username;
+            this.library = library;
+            this.paper = paper;
+            this.answers = answers;
+            this.currentIndex = currentIndex;
+            this.startedAtMillis = startedAtMillis;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        static State of(ExamSession session, String library) {
+            int[] answers = new int[session.questionCount()];
+            for (int i = 0; i < answers.length; i++) {
+                answers[i] = session.answerOf(i);
+            }
+            return new State(session.getUsername(), library, session.getPaper(), answers, session.getCurrentIndex(),
+                    session.getStartedAtMillis(), session.getDeadlineMillis());
+        }
+    }
+
+    // 待删除标记
+    private static final State DELETED = new State(null, null, null, null, 0, 0, 0);
+
+    private final Path directory;
+    // 每个用户尚未写盘的最新状态
+    private final Map<String, State> pending = new ConcurrentHashMap<>();
+    private final Object signal = new Object();
+    private final Object flushLock = new Object();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private SessionCheckpoints(Path directory) {
+        this.directory = directory;
+        this.writer = new Thread(this::writeLoop, "session-checkpointer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    static SessionCheckpoints open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SessionCheckpoints checkpoints = new SessionCheckpoints(directory);
+        Runtime.getRuntime().addShutdownHook(new Thread(checkpoints::close, "session-checkpoint-shutdown"));
+        return checkpoints;
+    }
+
+    // 记录会话的最新状态，稍后在后台写盘；不阻塞调用线程。library 为出卷的单词库名
+    void save(ExamSession session, String library) {
+        schedule(session.getUsername(), State.of(session, library));
+    }
+
+    // 交卷后删除用户的检查点
+    void discard(String username) {
+        schedule(username, DELETED);
+    }
+
+    // 读取用户在单词库 library 中未完成的考试，没有可恢复的检查点时返回 null
+    ExamSession load(String username, String library, Map<String, String> wordLibrary) {
+        State state = pending.get(username);
+        if (state == null) {
+            // 可能正由写线程写盘，等它完成后再读文件
+            synchronized (flushLock) {
+                state = pending.get(username);
+                if (state == null) {
+                    try {
+                        state = read(fileOf(username), username);
+                    } catch (IOException e) {
+                        System.err.println("考试检查点损坏，已丢弃 " + username + ": " + e);
+                        discard(username);
+                        return null;
+                    }
+                }
+            }
+        }
+        if (state == null || state == DELETED || !state.library.equals(library)) {
+            // 其他单词库的考试不在这里恢复；用户在这里开考后新检查点会覆盖它
+            return null;
+        }
+        if (!matches(state.paper, wordLibrary)) {
+            System.err.println("考试检查点与当前单词库不符，已丢弃: " + username);
+            discard(username);
+            return null;
+        }
+        return ExamSession.restore(username, wordLibrary, state.paper, state.answers, state.currentIndex,
+                state.startedAtMillis, state.deadlineMillis);
+    }
+
+    // 立即写出所有待写状态
+    void flush() {
+        synchronized (flushLock) {
+            for (String username : pending.keySet()) {
+                State state = pending.remove(username);
+                if (state == null) {
+                    continue;
+                }
+                try {
+                    if (state == DELETED) {
+                        Files.deleteIfExists(fileOf(username));
+                    } else {
+                        write(state, fileOf(username));
+                    }
+                } catch (IOException e) {
+                    System.err.println("保存考试检查点失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        flush();
+    }
+
+    // 每道题的单词在 wordLibrary 中的释义是否仍是试卷上的正确选项
+    private static boolean matches(ExamSession.Paper paper, Map<String, String> wordLibrary) {
+        for (int i = 0; i < paper.words.size(); i++) {
+            String meaning = wordLibrary.get(paper.words.get(i));
+            if (meaning == null || !meaning.equals(paper.options[i][paper.correctOptions[i]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void schedule(String username, State state) {
+        pending.put(username, state);
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (!closed) {
+                synchronized (signal) {
+                    while (pending.isEmpty() && !closed) {
+                        signal.wait();
+                    }
+                }
+                // 等一小段时间，把这期间的多次修改合并成一次写入
+                Thread.sleep(COALESCE_MILLIS);
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 用户名按 UTF-8 十六进制编码作为文件名，避免特殊字符
+    private Path fileOf(String username) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) {
+            name.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return directory.resolve(name.append(".ckpt").toString());
+    }
+
+    private static void write(State state, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(state.username);
+            out.writeUTF(state.library);
+            out.writeLong(state.startedAtMillis);
+            out.writeLong(state.deadlineMillis);
+            out.writeInt(state.currentIndex);
+            out.writeInt(state.answers.length);
+            for (int i = 0; i < state.answers.length; i++) {
+                out.writeUTF(state.paper.words.get(i));
+                out.writeByte(state.paper.correctOptions[i]);
+                out.writeByte(state.answers[i]);
+                String[] options = state.paper.options[i];
+                out.writeByte(options.length);
+                for (String option : options) {
+                    out.writeBoolean(option != null);
+                    out.writeUTF(option != null ? option : "");
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 读取检查点文件，文件不存在时返回 null；数值越界、长度不符或不属于 username 时抛出 IOException
+    private static State read(Path file, String username) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        long length = Files.size(file);
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("不是有效的考试检查点文件: " + file);
+            }
+            if (!in.readUTF().equals(username)) {
+                throw new IOException("检查点不属于该用户: " + file);
+            }
+            String library = in.readUTF();
+            long startedAt = in.readLong();
+            long deadline = in.readLong();
+            int currentIndex = in.readInt();
+            int count = in.readInt();
+            if (count < 0 || count > length / MIN_QUESTION_BYTES) {
+                throw new IOException("检查点题数超出范围: " + count);
+            }
+            if (currentIndex < 0 || currentIndex >= Math.max(1, count)) {
+                throw new IOException("检查点当前题号超出范围: " + currentIndex);
+            }
+            List<String> words = new ArrayList<>(count);
+            String[][] options = new String[count][];
+            int[] correctOptions = new int[count];
+            int[] answers = new int[count];
+            for (int i = 0; i < count; i++) {
+                words.add(in.readUTF());
+                correctOptions[i] = in.readByte();
+                answers[i] = in.readByte();
+                options[i] = new String[in.readUnsignedByte()];
+                if (correctOptions[i] < 0 || correctOptions[i] >= options[i].length
+                        || answers[i] < -1 || answers[i] >= options[i].length) {
+                    throw new IOException("检查点第 " + i + " 题的选项位置超出范围");
+                }
+                for (int j = 0; j < options[i].length; j++) {
+                    boolean present = in.readBoolean();
+                    String option = in.readUTF();
+                    options[i][j] = present ? option : null;
+                }
+                if (options[i][correctOptions[i]] == null) {
+                    throw new IOException("检查点第 " + i + " 题缺少正确选项");
+                }
+            }
+            if (in.read() != -1) {
+                throw new IOException("检查点末尾有多余数据: " + file);
+            }
+            return new State(username, library,
+                    new ExamSession.Paper(Collections.unmodifiableList(words), options, correctOptions),
+                    answers, currentIndex, startedAt, deadline);
+        }
+    }
+}
@@ -2,73 +2,111 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
 import java.io.*;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-// 浮动文字类
-class FloatingText {
-    String text;
-    int x, y;         // 位置
-    int dx, dy;       // 速度
-    Color color;      // 颜色
-    Font font;        // 字体
-
-    public FloatingText(String text, int x, int y, int dx, int dy, Color color, Font font) {
-        this.text = text;
-        this.x = x;
-        this.y = y;
-        this.dx = dx;
-        this.dy = dy;
-        this.color = color;
-        this.font = font;
-    }
-
-    // 更新位置
-    public void update(int width, int height) {
-        x += dx;
-        y += dy;
-
-        // 边界检测 - 碰到边界反弹
-        if (x <= 0 || x >= width - 50) {
-            dx = -dx;
-        }
-        if (y <= 20 || y >= height - 20) {
-            dy = -dy;
+// 浮动文字面板：文字状态按列存放在基本类型数组中（结构数组），所有状态只在 EDT 上读写。
+// 每帧只请求重绘每段文字自己的新旧位置，批量模式下有硬件加速时把每段文字预先光栅化成兼容图像
+class FloatingTextPanel extends JPanel {
+    // 缓存的文字图像上限，超出后新文字退回逐条 drawString
+    private static final int MAX_SPRITES = 4096;
+    // 每帧绘制耗时
+    private static final Metrics.Histogram FRAME_TIME = Metrics.histogram("floating_text.frame");
+
+    private final boolean batched;
+    private int count;
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private int[] dxs = new int[16];
+    private int[] dys = new int[16];
+    private int[] colors = new int[16];
+    // 每段文字的 Color 对象，添加文字时创建一次，绘制时不再分配
+    private Color[] colorObjects = new Color[16];
+    // 批量模式下的图像编号，-1 表示尚未缓存，-2 表示不缓存（逐条绘制）
+    private int[] spriteIds = new int[16];
+    private String[] strings = new String[16];
+    private Font[] fonts = new Font[16];
+
+    // 预先光栅化的文字图像，origin 为文字基线起点在图像中的位置
+    private static final class Sprite {
+        final BufferedImage image;
+        final int originX;
+        final int originY;
+
+        Sprite(BufferedImage image, int originX, int originY) {
+            this.image = image;
+            this.originX = originX;
+            this.originY = originY;
         }
     }
-}
 
-// 浮动文字面板
-class FloatingTextPanel extends JPanel {
-    private List<FloatingText> texts = new ArrayList<>();
-    private Timer timer;
+    // 文字图像缓存：按 文字 + 字体 + 颜色 去重
+    private final Map<String, Integer> spriteIndex = new HashMap<>();
+    private final List<Sprite> sprites = new ArrayList<>();
+    // 当前图形配置支持图像加速时才使用预光栅化图像
+    private boolean spritesAccelerated;
+
+    private ExamTimerWheel.Timeout frameTimer;
+    // 上一帧尚未在 EDT 上处理完时跳过本帧，避免积压
+    private final AtomicBoolean framePending = new AtomicBoolean();
     private Random random = new Random();
 
     public FloatingTextPanel() {
+        this(true);
+    }
+
+    // batched 为 false 时每帧逐条 setFont/setColor/drawString 绘制
+    public FloatingTextPanel(boolean batched) {
+        this.batched = batched;
+
         // 初始化一些浮动文字
         initTexts();
 
         // 设置背景色
         setBackground(Color.BLACK);
+        setOpaque(true);
+    }
 
-        // 创建定时器，每30毫秒更新一次
-        timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        spritesAccelerated = batched && configuration != null && configuration.getImageCapabilities().isAccelerated();
+        // 挂到共享时间轮上，每16毫秒更新一次（约 60 帧/秒）
+        frameTimer = ExamTimerWheel.shared().scheduleAtFixedRate(() -> {
+            if (framePending.compareAndSet(false, true)) {
                 SwingUtilities.invokeLater(() -> {
+                    framePending.set(false);
                     updatePositions();
-                    repaint();
                 });
             }
-        }, 0, 30); // 初始延迟0ms，周期30ms
+        }, 16, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void removeNotify() {
+        // 面板关闭后停止动画并释放文字图像
+        if (frameTimer != null) {
+            frameTimer.cancel();
+            frameTimer = null;
+        }
+        sprites.clear();
+        spriteIndex.clear();
+        Arrays.fill(spriteIds, 0, count, -1);
+        super.removeNotify();
     }
 
     // 初始化文字
@@ -86,7 +124,7 @@ class FloatingTextPanel extends JPanel {
         }
     }
 
-    // 添加新的浮动文字
+    // 添加新的浮动文字（只能在 EDT 上调用）
     public void addText(String text, Font font) {
         int widthBound = getWidth() - 200; // 增大间距
         if (widthBound <= 0) {
@@ -107,106 +145,489 @@ class FloatingTextPanel extends JPanel {
             dx = 1;
         }
 
-        Color color = new Color(
-                random.nextInt(256),
-                random.nextInt(256),
-                random.nextInt(256)
-        );
+        int rgb = (random.nextInt(256) << 16) | (random.nextInt(256) << 8) | random.nextInt(256);
+        if (batched) {
+            // 批量模式把颜色量化到 64 色，让相同文字尽量共用同一张图像
+            rgb = (quantize(rgb >> 16) << 16) | (quantize(rgb >> 8) << 8) | quantize(rgb);
+        }
+
+        if (count == xs.length) {
+            grow();
+        }
+        xs[count] = x;
+        ys[count] = y;
+        dxs[count] = dx;
+        dys[count] = dy;
+        colors[count] = rgb;
+        colorObjects[count] = new Color(rgb);
+        strings[count] = text;
+        fonts[count] = font;
+        spriteIds[count] = -1;
+        count++;
+        repaint();
+    }
+
+    private static int quantize(int channel) {
+        return ((channel & 0xFF) >> 6) * 85;
+    }
 
-        texts.add(new FloatingText(text, x, y, dx, dy, color, font));
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        dxs = Arrays.copyOf(dxs, capacity);
+        dys = Arrays.copyOf(dys, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        colorObjects = Arrays.copyOf(colorObjects, capacity);
+        spriteIds = Arrays.copyOf(spriteIds, capacity);
+        strings = Arrays.copyOf(strings, capacity);
+        fonts = Arrays.copyOf(fonts, capacity);
     }
 
-    // 更新所有文字的位置
+    // 更新所有文字的位置，每段文字各自请求重绘它的旧位置和新位置
     private void updatePositions() {
-        for (FloatingText text : texts) {
-            text.update(getWidth(), getHeight());
+        int width = getWidth();
+        int height = getHeight();
+
+        for (int i = 0; i < count; i++) {
+            int x = xs[i];
+            int y = ys[i];
+            int nx = x + dxs[i];
+            int ny = y + dys[i];
+            xs[i] = nx;
+            ys[i] = ny;
+
+            // 边界检测 - 碰到边界反弹
+            if (nx <= 0 || nx >= width - 50) {
+                dxs[i] = -dxs[i];
+            }
+            if (ny <= 20 || ny >= height - 20) {
+                dys[i] = -dys[i];
+            }
+
+            // 未缓存图像的文字按字号粗略估算范围
+            int left, top, right, bottom;
+            if (spriteIds[i] >= 0) {
+                Sprite sprite = sprites.get(spriteIds[i]);
+                left = -sprite.originX;
+                top = -sprite.originY;
+                right = left + sprite.image.getWidth();
+                bottom = top + sprite.image.getHeight();
+            } else {
+                int size = fonts[i].getSize();
+                left = 0;
+                top = -size * 3 / 2;
+                right = size * strings[i].length() * 2;
+                bottom = size;
+            }
+            repaint(x + left - 1, y + top - 1, right - left + 2, bottom - top + 2);
+            repaint(nx + left - 1, ny + top - 1, right - left + 2, bottom - top + 2);
         }
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long started = System.nanoTime();
+        ExamEvents.FloatingTextFrame event = new ExamEvents.FloatingTextFrame();
+        event.begin();
         super.paintComponent(g);
+        paintTexts(g);
+        event.texts = count;
+        event.commit();
+        FRAME_TIME.recordSince(started);
+    }
 
+    private void paintTexts(Graphics g) {
         // 绘制所有浮动文字
-        for (FloatingText text : texts) {
-            g.setColor(text.color);
-            g.setFont(text.font);
-            g.drawString(text.text, text.x, text.y);
+        if (!batched) {
+            for (int i = 0; i < count; i++) {
+                g.setColor(colorObjects[i]);
+                g.setFont(fonts[i]);
+                g.drawString(strings[i], xs[i], ys[i]);
+            }
+            return;
         }
+
+        // 批量模式：跳过裁剪区外的文字；有硬件加速时贴预先光栅化的图像，
+        // 否则（软件管线上逐字绘制反而更快）直接 drawString，只在字体、颜色变化时切换状态
+        Rectangle clip = g.getClipBounds();
+        Font currentFont = null;
+        int currentColor = -1;
+        for (int i = 0; i < count; i++) {
+            int spriteId = spritesAccelerated && spriteIds[i] == -1 ? spriteFor(i) : spriteIds[i];
+            if (spriteId >= 0) {
+                Sprite sprite = sprites.get(spriteId);
+                int left = xs[i] - sprite.originX;
+                int top = ys[i] - sprite.originY;
+                if (clip == null || clip.intersects(left, top, sprite.image.getWidth(), sprite.image.getHeight())) {
+                    g.drawImage(sprite.image, left, top, null);
+                }
+                continue;
+            }
+            int size = fonts[i].getSize();
+            if (clip != null && !clip.intersects(xs[i], ys[i] - size * 3 / 2, size * strings[i].length() * 2, size * 5 / 2)) {
+                continue;
+            }
+            if (fonts[i] != currentFont) {
+                currentFont = fonts[i];
+                g.setFont(currentFont);
+            }
+            if (colors[i] != currentColor) {
+                currentColor = colors[i];
+                g.setColor(colorObjects[i]);
+            }
+            g.drawString(strings[i], xs[i], ys[i]);
+        }
+    }
+
+    // 取得（必要时创建）第 i 段文字的图像：用 GlyphVector 一次性光栅化到兼容图像中，
+    // 之后每帧只做一次图像拷贝，这类托管图像由 Java2D 缓存到显存加速（仅在 addNotify 之后调用）
+    private int spriteFor(int i) {
+        String key = strings[i] + '\u0000' + fonts[i] + '\u0000' + colors[i];
+        Integer cached = spriteIndex.get(key);
+        if (cached != null) {
+            spriteIds[i] = cached;
+            return cached;
+        }
+        if (sprites.size() >= MAX_SPRITES) {
+            spriteIds[i] = -2;
+            return -2;
+        }
+
+        FontRenderContext context = new FontRenderContext(null, true, true);
+        GlyphVector glyphs = fonts[i].createGlyphVector(context, strings[i]);
+        Rectangle bounds = glyphs.getPixelBounds(context, 0, 0);
+        if (bounds.isEmpty()) {
+            spriteIds[i] = -2;
+            return -2;
+        }
+        // 四周各留 1 像素，避免抗锯齿边缘被裁掉
+        int originX = 1 - bounds.x;
+        int originY = 1 - bounds.y;
+        BufferedImage image = getGraphicsConfiguration()
+                .createCompatibleImage(bounds.width + 2, bounds.height + 2, Transparency.TRANSLUCENT);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(colorObjects[i]);
+        g2.drawGlyphVector(glyphs, originX, originY);
+        g2.dispose();
+
+        int id = sprites.size();
+        sprites.add(new Sprite(image, originX, originY));
+        spriteIndex.put(key, id);
+        spriteIds[i] = id;
+        return id;
     }
 }
 
 // 主类：单词考试系统
 class WordExamSystem extends JFrame {
-    // 模拟专业单词库（key:单词，value:释义 ），实际可从文件/Db加载
-    private static final Map<String, String> WORD_LIBRARY = new HashMap<>();
+    // 模拟专业单词库（key:单词，value:释义 ），实际可从文件/Db加载；
+    // 单词库及其索引按版本整体发布，文本文件变化时热更新
+    private static final WordLibraryStore LIBRARY;
+    // 与当前单词库版本配套的出卷状态，版本切换时整体替换
+    private static volatile ExamContext context;
+    // 单词库目录：默认词库常驻，领域词库按需加载，空闲时按词条总数预算淘汰
+    private static final String DEFAULT_LIBRARY_NAME = "通用";
+    private static final String LIBRARY_DIR = "word_libraries";
+    private static final long MAX_CACHED_LIBRARY_ENTRIES = 1_000_000;
+    private static final LibraryHandle DEFAULT_LIBRARY;
+    private static final LibraryCatalog CATALOG = new LibraryCatalog(Paths.get(LIBRARY_DIR), MAX_CACHED_LIBRARY_ENTRIES);
+    // 预生成的均匀抽题试卷，首次考试的用户登录时直接取用
+    private static final int PAPER_POOL_CAPACITY = 8;
     // 考试时长（分钟）
     private static final int EXAM_DURATION = 15;
     // 考试题量
     private static final int QUESTION_COUNT = 10;
     // 用户信息文件路径
     private static final String USER_INFO_FILE = "user_info.txt";
+    // 单词库文本文件及其二进制快照路径
+    private static final String WORD_LIBRARY_FILE = "word_library.txt";
+    private static final String WORD_LIBRARY_SNAPSHOT = "word_library.snapshot";
+    // 难干扰项近邻表文件及每个释义保留的近邻数
+    private static final String HARD_DISTRACTOR_FILE = "word_library.neighbors";
+    private static final int HARD_DISTRACTOR_K = 8;
+    // 用户凭据索引：启动时加载一次，文件变化时后台刷新
+    private static final CredentialIndex CREDENTIALS = CredentialIndex.load(Paths.get(USER_INFO_FILE));
+    // 考试结果日志文件路径
+    private static final String EXAM_JOURNAL_FILE = "exam_journal.bin";
+    // 考试结果日志：启动时回放以恢复排名和选题权重，打开失败时为 null（成绩不持久化）
+    private static final ExamJournal JOURNAL;
+    // 未完成考试的检查点目录；打开失败时为 null（不保存进度）
+    private static final String CHECKPOINT_DIR = "exam_checkpoints";
+    private static final SessionCheckpoints CHECKPOINTS;
+    // 性能指标快照文件，每分钟导出一次
+    private static final String METRICS_FILE = "exam_metrics.txt";
+    // EDT 上单个事件超过这个时长即记为卡顿
+    private static final long EDT_STALL_MILLIS = 50;
+    // 无界面服务模式的默认端口
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    // 逐词的作答统计：交卷时累加，启动时由考试日志回放重建
+    private static final ItemStatistics ITEM_STATS = new ItemStatistics();
+    // 成绩排名（每题 10 分），启动时由考试日志回放重建；排名对话框中显示前 RANKING_TOP_N 名
+    private static final RankingManager RANKING = new RankingManager(QUESTION_COUNT * 10);
+    private static final int RANKING_TOP_N = 10;
+    // 界面模式同时打开的登录窗口数
+    private static final int LOGIN_WINDOWS = 3;
+    // 本次运行中已保存完成的交卷数，只在 EDT 上读写
+    private static int finishedSubmissions;
+    // 界面模式下正在考试（从登录到成绩保存完成）的用户
+    private static final Set<String> ACTIVE_EXAMS = ConcurrentHashMap.newKeySet();
+    private static final Metrics.Histogram LOGIN_LATENCY = Metrics.histogram("login");
+    private static final Metrics.Histogram NAVIGATION_LATENCY = Metrics.histogram("exam.navigate");
+    private static final Metrics.Histogram SUBMIT_LATENCY = Metrics.histogram("exam.submit");
 
     // 静态初始化单词库
     static {
-        // 尝试从文件加载单词库
+        // 尝试从快照加载单词库，快照缺失或过期时由文本文件重建
+        long loadStarted = System.nanoTime();
+        ExamEvents.LibraryLoad loadEvent = new ExamEvents.LibraryLoad();
+        loadEvent.begin();
+        WordLibraryVersion initial;
         try {
-            loadWordLibraryFromFile("word_library.txt");
+            initial = WordLibraryVersion.load(1, Paths.get(WORD_LIBRARY_FILE), Paths.get(WORD_LIBRARY_SNAPSHOT));
+            loadEvent.source = initial.snapshotBacked ? "snapshot" : "text";
         } catch (IOException e) {
             System.err.println("加载单词库文件失败，使用默认单词库: " + e.getMessage());
             // 使用默认单词库
-            WORD_LIBRARY.put("abandon", "放弃；抛弃");
-            WORD_LIBRARY.put("accelerate", "加速；促进");
-            WORD_LIBRARY.put("benefit", "利益；好处");
-            WORD_LIBRARY.put("capacity", "能力；容量");
-            WORD_LIBRARY.put("diverse", "不同的；多种多样的");
-            WORD_LIBRARY.put("efficient", "高效的；有能力的");
-            WORD_LIBRARY.put("generate", "产生；生成");
-            WORD_LIBRARY.put("highlight", "强调；突出");
-            WORD_LIBRARY.put("illustrate", "说明；阐明");
-            WORD_LIBRARY.put("justify", "证明...正确；为...辩护");
-            WORD_LIBRARY.put("maintain", "维持；保持");
-            WORD_LIBRARY.put("neglect", "忽视；疏忽");
-            WORD_LIBRARY.put("optimize", "优化；使完善");
-            WORD_LIBRARY.put("persist", "坚持；持续");
-            WORD_LIBRARY.put("qualify", "使具备资格；限定");
-            WORD_LIBRARY.put("relevant", "相关的；切题的");
-            WORD_LIBRARY.put("stimulate", "刺激；激励");
-            WORD_LIBRARY.put("temporary", "临时的；暂时的");
-            WORD_LIBRARY.put("ultimate", "最终的；根本的");
-            WORD_LIBRARY.put("validate", "验证；确认");
-        }
-    }
-
-    // 从文件加载单词库
-    private static void loadWordLibraryFromFile(String filePath) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filePath), "UTF-8"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // 格式：单词,释义
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    WORD_LIBRARY.put(parts[0].trim(), parts[1].trim());
+            Map<String, String> defaults = new HashMap<>();
+            defaults.put("abandon", "放弃；抛弃");
+            defaults.put("accelerate", "加速；促进");
+            defaults.put("benefit", "利益；好处");
+            defaults.put("capacity", "能力；容量");
+            defaults.put("diverse", "不同的；多种多样的");
+            defaults.put("efficient", "高效的；有能力的");
+            defaults.put("generate", "产生；生成");
+            defaults.put("highlight", "强调；突出");
+            defaults.put("illustrate", "说明；阐明");
+            defaults.put("justify", "证明...正确；为...辩护");
+            defaults.put("maintain", "维持；保持");
+            defaults.put("neglect", "忽视；疏忽");
+            defaults.put("optimize", "优化；使完善");
+            defaults.put("persist", "坚持；持续");
+            defaults.put("qualify", "使具备资格；限定");
+            defaults.put("relevant", "相关的；切题的");
+            defaults.put("stimulate", "刺激；激励");
+            defaults.put("temporary", "临时的；暂时的");
+            defaults.put("ultimate", "最终的；根本的");
+            defaults.put("validate", "验证；确认");
+            initial = WordLibraryVersion.fromMap(1, defaults, null);
+            loadEvent.source = "default";
+        }
+        loadEvent.entries = initial.size();
+        loadEvent.commit();
+        Metrics.histogram("library.load").recordSince(loadStarted);
+        LIBRARY = new WordLibraryStore(Paths.get(WORD_LIBRARY_FILE), Paths.get(WORD_LIBRARY_SNAPSHOT), initial);
+        context = new ExamContext(initial, new AdaptiveQuestionSelector(initial.wordIndex));
+        DEFAULT_LIBRARY = new LibraryHandle(DEFAULT_LIBRARY_NAME, LIBRARY::current, null);
+        CATALOG.pin(DEFAULT_LIBRARY);
+        JOURNAL = openJournal();
+        CHECKPOINTS = openCheckpoints();
+        loadHardDistractorsInBackground(context);
+        LIBRARY.onSwap(WordExamSystem::switchLibrary);
+        LIBRARY.startWatching();
+        CREDENTIALS.startWatching();
+    }
+
+    // 一个单词库版本及与之配套的选题器、试卷池；出卷时先取一次 context，之后只用其中的对象，
+    // 保证题目单词、干扰项和判分用的单词表来自同一版本
+    private static final class ExamContext {
+        final WordLibraryVersion library;
+        final AdaptiveQuestionSelector selector;
+        final PaperFactory papers;
+
+        ExamContext(WordLibraryVersion library, AdaptiveQuestionSelector selector) {
+            this.library = library;
+            this.selector = selector;
+            this.papers = new PaperFactory(library.library, library.wordIndex, library.meaningIndex,
+                    QUESTION_COUNT, PAPER_POOL_CAPACITY);
+        }
+    }
+
+    // 单词库发布新版本：选题权重搬到新索引上，换用新版本的试卷池并在后台准备近邻表。
+    // 进行中的考试仍持有旧版本的单词表和试卷，照常作答、交卷
+    private static void switchLibrary(WordLibraryVersion previous, WordLibraryVersion next) {
+        ExamContext old = context;
+        ExamContext updated = new ExamContext(next, old.selector.rebase(next.wordIndex));
+        context = updated;
+        old.papers.close();
+        loadHardDistractorsInBackground(updated);
+    }
+
+    // 打开考试结果日志，并用历史记录重建排名和选题权重
+    private static ExamJournal openJournal() {
+        try {
+            return ExamJournal.open(Paths.get(EXAM_JOURNAL_FILE), result -> {
+                RANKING.record(result.username, result.score());
+                context.selector.update(result);
+                ITEM_STATS.record(result);
+            });
+        } catch (IOException e) {
+            System.err.println("打开考试日志失败，本次运行的成绩不会保存: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 校验用户名和密码，记录登录耗时和结果
+    private static boolean verifyLogin(String username, String password) {
+        long started = System.nanoTime();
+        ExamEvents.Login event = new ExamEvents.Login();
+        event.begin();
+        boolean success = CREDENTIALS.verify(username, password);
+        event.username = username;
+        event.success = success;
+        event.commit();
+        LOGIN_LATENCY.recordSince(started);
+        Metrics.counter(success ? "login.success" : "login.failure").increment();
+        return success;
+    }
+
+    // 保存一次考试结果：更新选题权重、作答统计和排名，并异步写入考试日志；返回该用户当前名次
+    private static int saveResult(ExamSession.Result result) {
+        context.selector.update(result);
+        ITEM_STATS.record(result);
+        if (CHECKPOINTS != null) {
+            CHECKPOINTS.discard(result.username);
+        }
+        if (JOURNAL != null) {
+            JOURNAL.append(result).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    System.err.println("保存考试结果失败: " + error.getMessage());
                 }
+            });
+        }
+        return RANKING.record(result.username, result.score());
+    }
+
+    // 一次登录的结果：考试会话及其所用单词库的句柄，交卷后归还句柄
+    private static final class ExamStart {
+        final ExamSession session;
+        final LibraryHandle library;
+
+        ExamStart(ExamSession session, LibraryHandle library) {
+            this.session = session;
+            this.library = library;
+        }
+    }
+
+    // 校验登录并用所选单词库出卷，校验失败返回 null；领域词库第一次使用时在这里加载。
+    // 同一用户同时只能有一场考试，否则两个窗口会共用同一个检查点文件，互相覆盖作答进度
+    private static ExamStart startExam(String username, String password, String libraryName) {
+        if (!verifyLogin(username, password)) {
+            return null;
+        }
+        if (!ACTIVE_EXAMS.add(username)) {
+            throw new IllegalStateException("该用户已在另一个窗口中考试");
+        }
+        LibraryHandle library = null;
+        try {
+            library = CATALOG.acquire(libraryName);
+            return new ExamStart(newSession(username, library), library);
+        } catch (IOException e) {
+            ACTIVE_EXAMS.remove(username);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            ACTIVE_EXAMS.remove(username);
+            if (library != null) {
+                library.close();
             }
+            throw e;
+        }
+    }
+
+    // 考试服务只使用默认词库
+    private static ExamSession newSession(String username) {
+        return newSession(username, DEFAULT_LIBRARY);
+    }
+
+    // 为用户出卷：有未完成且未超时的考试时从检查点恢复（已超时的按当时的作答交卷），
+    // 否则默认词库中有作答记录的用户按自适应权重现出，其余用户取预生成的试卷；
+    // 领域词库没有试卷池和选题权重，按均匀抽样现出
+    private static ExamSession newSession(String username, LibraryHandle library) {
+        WordLibraryVersion version = library.version();
+        ExamSession resumed = resumeSession(username, library.name, version.library);
+        if (resumed != null) {
+            return resumed;
+        }
+        if (library != DEFAULT_LIBRARY) {
+            return new ExamSession(username, version.library, ExamSession.randomPaper(version.library,
+                    version.wordIndex, version.meaningIndex, QUESTION_COUNT, new SplittableRandom()));
+        }
+        ExamContext current = context;
+        if (current.selector.hasHistory(username)) {
+            SplittableRandom random = new SplittableRandom();
+            List<String> words = current.selector.select(username, QUESTION_COUNT, random);
+            return new ExamSession(username, current.papers.wordLibrary(), current.papers.paperFor(words, random));
+        }
+        return new ExamSession(username, current.papers.wordLibrary(), current.papers.take());
+    }
+
+    private static ExamSession resumeSession(String username, String libraryName, Map<String, String> wordLibrary) {
+        if (CHECKPOINTS == null) {
+            return null;
+        }
+        ExamSession session = CHECKPOINTS.load(username, libraryName, wordLibrary);
+        if (session == null || !session.isStarted()) {
+            return null;
+        }
+        if (session.getDeadlineMillis() <= System.currentTimeMillis()) {
+            saveResult(session.grade());
+            return null;
         }
+        return session;
     }
 
-    // 从文件加载用户信息
-    private static Map<String, String> loadUserInfo() {
-        Map<String, String> userInfo = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(USER_INFO_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 2) {
-                    userInfo.put(parts[0].trim(), parts[1].trim());
+    // 在后台线程为该版本读取近邻表，文件缺失或过期时重新构建；只有快照版本的表才保存到文件，
+    // 内存版本的释义编号与快照不同。完成前出卷只用均匀抽样的干扰项
+    private static void loadHardDistractorsInBackground(ExamContext target) {
+        WordLibraryVersion version = target.library;
+        Thread loader = new Thread(() -> {
+            Path file = Paths.get(HARD_DISTRACTOR_FILE);
+            HardDistractorTable table = null;
+            try {
+                if (version.snapshotBacked
+                        && HardDistractorTable.isFresh(file, Paths.get(WORD_LIBRARY_SNAPSHOT), version.meaningIndex.size())) {
+                    try {
+                        table = HardDistractorTable.read(file);
+                    } catch (IOException e) {
+                        System.err.println("难干扰项近邻表损坏，重新构建: " + e.getMessage());
+                    }
+                }
+                if (table == null) {
+                    table = HardDistractorTable.build(version.meaningIndex, HARD_DISTRACTOR_K);
+                    // 构建期间可能又发布了新版本，此时快照已换，不能再覆盖近邻表文件
+                    if (version.snapshotBacked && LIBRARY.current() == version) {
+                        try {
+                            table.write(file);
+                        } catch (IOException e) {
+                            System.err.println("保存难干扰项近邻表失败，本次仍使用构建结果: " + e.getMessage());
+                        }
+                    }
                 }
+            } catch (IOException e) {
+                System.err.println("加载难干扰项近邻表失败，使用随机干扰项: " + e.getMessage());
+                return;
             }
+            target.papers.useHardDistractors(table);
+        }, "hard-distractor-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private static SessionCheckpoints openCheckpoints() {
+        try {
+            return SessionCheckpoints.open(Paths.get(CHECKPOINT_DIR));
         } catch (IOException e) {
-            System.err.println("加载用户信息文件失败: " + e.getMessage());
+            System.err.println("打开考试检查点目录失败，本次运行不保存考试进度: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 记录考试进度，后台合并写盘
+    private static void checkpoint(ExamSession session, LibraryHandle library) {
+        if (CHECKPOINTS != null) {
+            CHECKPOINTS.save(session, library.name);
         }
-        return userInfo;
     }
 
     public WordExamSystem() {
@@ -226,7 +647,7 @@ class WordExamSystem extends JFrame {
         container.add(titleLabel, BorderLayout.NORTH);
 
         // 2.2 中间登录表单（用户名、密码、按钮 ）
-        JPanel formPanel = new JPanel(new GridLayout(3, 2, 10, 10));
+        JPanel formPanel = new JPanel(new GridLayout(4, 2, 10, 10));
         formPanel.setBorder(BorderFactory.createEmptyBorder(20, 40, 20, 40));
 
         JLabel userLabel = new JLabel("用户名：");
@@ -235,27 +656,41 @@ class WordExamSystem extends JFrame {
         JLabel pwdLabel = new JLabel("密码：");
         JPasswordField pwdField = new JPasswordField();
 
+        JLabel libraryLabel = new JLabel("单词库：");
+        JComboBox<String> libraryBox = new JComboBox<>(CATALOG.names().toArray(new String[0]));
+
         JButton loginBtn = new JButton("登录");
         loginBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String username = userField.getText();
                 String password = new String(pwdField.getPassword());
-                Map<String, String> userInfo = loadUserInfo();
-                if (userInfo.containsKey(username) && userInfo.get(username).equals(password)) {
+                String libraryName = (String) libraryBox.getSelectedItem();
+                // 校验和出卷（可能加载单词库、读取检查点文件）在后台执行，完成后回到 EDT 打开考试窗口
+                loginBtn.setEnabled(false);
+                UiTasks.run(() -> startExam(username, password, libraryName), start -> {
+                    loginBtn.setEnabled(true);
+                    if (start == null) {
+                        JOptionPane.showMessageDialog(WordExamSystem.this,
+                                "用户名或密码错误！",
+                                "错误",
+                                JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
                     JOptionPane.showMessageDialog(WordExamSystem.this,
-                            "登录成功！进入单词考试~",
+                            start.session.isStarted() ? "登录成功！继续上次未完成的考试~" : "登录成功！进入单词考试~",
                             "提示",
                             JOptionPane.INFORMATION_MESSAGE);
                     // 隐藏登录窗口，打开考试窗口
                     setVisible(false);
-                    new ExamWindow(WORD_LIBRARY, EXAM_DURATION, QUESTION_COUNT, username).setVisible(true);
-                } else {
+                    new ExamWindow(start.session, start.library, EXAM_DURATION).setVisible(true);
+                }, error -> {
+                    loginBtn.setEnabled(true);
                     JOptionPane.showMessageDialog(WordExamSystem.this,
-                            "用户名或密码错误！",
+                            "登录失败：" + error.getMessage(),
                             "错误",
                             JOptionPane.ERROR_MESSAGE);
-                }
+                });
             }
         });
 
@@ -263,6 +698,8 @@ class WordExamSystem extends JFrame {
         formPanel.add(userField);
         formPanel.add(pwdLabel);
         formPanel.add(pwdField);
+        formPanel.add(libraryLabel);
+        formPanel.add(libraryBox);
         formPanel.add(new JLabel()); // 占位，让按钮居中
         formPanel.add(loginBtn);
 
@@ -274,40 +711,30 @@ class WordExamSystem extends JFrame {
         container.add(versionLabel, BorderLayout.SOUTH);
     }
 
-    // 考试窗口类
+    // 考试窗口类：只负责渲染考试会话的状态，考试逻辑由 ExamSession 完成
     static class ExamWindow extends JFrame {
-        private final Map<String, String> wordLibrary;
+        private final ExamSession session;
+        // 本场考试所用的单词库，持有期间不会被目录缓存淘汰，交卷后归还
+        private final LibraryHandle library;
         private final int examDuration;
-        private final int questionCount;
-        private final List<String> selectedWords;
-        private final Map<String, Integer> userAnswers = new HashMap<>();
-        private int currentQuestionIndex = 0;
-        private Timer timer;
-        private LocalDateTime startTime;
-        private LocalDateTime endTime;
+        private ExamTimerWheel.Countdown countdown;
+        private boolean submitted;
         private JLabel timeLabel;
         private JLabel questionLabel;
         private JRadioButton[] optionButtons = new JRadioButton[4];
         private ButtonGroup optionGroup;
-        private String username;
 
-        public ExamWindow(Map<String, String> wordLibrary, int examDuration, int questionCount, String username) {
-            this.wordLibrary = wordLibrary;
+        public ExamWindow(ExamSession session, LibraryHandle library, int examDuration) {
+            this.session = session;
+            this.library = library;
             this.examDuration = examDuration;
-            this.questionCount = questionCount;
-            this.username = username;
-
-            // 随机选择指定数量的单词作为考试题目
-            List<String> allWords = new ArrayList<>(wordLibrary.keySet());
-            Collections.shuffle(allWords);
-            selectedWords = allWords.subList(0, Math.min(questionCount, allWords.size()));
 
             initUI();
             startExamTimer();
         }
 
         private void initUI() {
-            setTitle("英文单词考试系统 - 考试中");
+            setTitle("英文单词考试系统 - 考试中（" + library.name + "）");
             setSize(600, 400);
             setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
             setLocationRelativeTo(null);
@@ -339,8 +766,8 @@ class WordExamSystem extends JFrame {
                 optionButtons[i] = new JRadioButton();
                 optionButtons[i].setFont(new Font("微软雅黑", Font.PLAIN, 14));
                 optionButtons[i].addActionListener(e -> {
-                    String currentWord = selectedWords.get(currentQuestionIndex);
-                    userAnswers.put(currentWord, getSelectedOptionIndex());
+                    session.answer(session.getCurrentIndex(), getSelectedOptionIndex());
+                    checkpoint(session, library);
                 });
                 optionGroup.add(optionButtons[i]);
                 optionsPanel.add(optionButtons[i]);
@@ -367,79 +794,52 @@ class WordExamSystem extends JFrame {
             showCurrentQuestion();
         }
 
+        // 新试卷从现在开始计时；从检查点恢复的试卷按原截止时间继续
         private void startExamTimer() {
-            startTime = LocalDateTime.now();
-            endTime = startTime.plusMinutes(examDuration);
-
-            timer = new Timer();
-            timer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    LocalDateTime now = LocalDateTime.now();
-                    if (now.isAfter(endTime)) {
-                        timer.cancel();
-                        SwingUtilities.invokeLater(() -> {
-                            JOptionPane.showMessageDialog(ExamWindow.this,
-                                    "考试时间已结束，系统将自动提交！",
-                                    "提示",
-                                    JOptionPane.INFORMATION_MESSAGE);
-                            submitExam();
-                        });
-                    } else {
-                        long remainingSeconds = java.time.Duration.between(now, endTime).getSeconds();
-                        long minutes = remainingSeconds / 60;
-                        long seconds = remainingSeconds % 60;
-                        SwingUtilities.invokeLater(() ->
-                                timeLabel.setText("剩余时间: " + String.format("%02d:%02d", minutes, seconds))
-                        );
-                    }
-                }
-            }, 0, 1000);
+            long nowMillis = System.currentTimeMillis();
+            if (!session.isStarted()) {
+                session.start(nowMillis, TimeUnit.MINUTES.toMillis(examDuration));
+            }
+            checkpoint(session, library);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(session.getDeadlineMillis() - nowMillis);
+            countdown = ExamTimerWheel.shared().startCountdown(deadline,
+                    remainingSeconds -> timeLabel.setText("剩余时间: " + String.format("%02d:%02d", remainingSeconds / 60, remainingSeconds % 60)),
+                    () -> {
+                        if (submitted) {
+                            return;
+                        }
+                        JOptionPane.showMessageDialog(ExamWindow.this,
+                                "考试时间已结束，系统将自动提交！",
+                                "提示",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        submitExam();
+                    });
         }
 
         private void showCurrentQuestion() {
-            if (currentQuestionIndex < 0 || currentQuestionIndex >= selectedWords.size()) {
+            if (session.questionCount() == 0) {
                 return;
             }
 
-            String currentWord = selectedWords.get(currentQuestionIndex);
-            questionLabel.setText("问题 " + (currentQuestionIndex + 1) + ": " + currentWord);
+            int index = session.getCurrentIndex();
+            questionLabel.setText("问题 " + (index + 1) + ": " + session.word(index));
 
             // 清除之前的选择
             optionGroup.clearSelection();
 
-            // 生成当前单词的选项（1个正确，3个干扰项）
-            List<String> options = generateOptions(currentWord);
+            // 显示出卷时固定的选项
+            String[] options = session.options(index);
             for (int i = 0; i < 4; i++) {
-                optionButtons[i].setText(options.get(i));
+                optionButtons[i].setText(options[i]);
             }
 
             // 如果用户之前已经选择过答案，恢复选择状态
-            if (userAnswers.containsKey(currentWord)) {
-                int selectedIndex = userAnswers.get(currentWord);
+            int selectedIndex = session.answerOf(index);
+            if (selectedIndex != -1) {
                 optionButtons[selectedIndex].setSelected(true);
             }
         }
 
-        private List<String> generateOptions(String correctWord) {
-            List<String> options = new ArrayList<>();
-            options.add(wordLibrary.get(correctWord)); // 正确答案
-
-            // 从单词库中随机选择3个不同的释义作为干扰项
-            List<String> allMeanings = new ArrayList<>(wordLibrary.values());
-            allMeanings.remove(wordLibrary.get(correctWord)); // 移除正确答案
-            Collections.shuffle(allMeanings);
-
-            // 添加3个干扰项
-            for (int i = 0; i < 3 && i < allMeanings.size(); i++) {
-                options.add(allMeanings.get(i));
-            }
-
-            // 打乱选项顺序
-            Collections.shuffle(options);
-            return options;
-        }
-
         private int getSelectedOptionIndex() {
             for (int i = 0; i < 4; i++) {
                 if (optionButtons[i].isSelected()) {
@@ -450,16 +850,23 @@ class WordExamSystem extends JFrame {
         }
 
         private void showPreviousQuestion() {
-            if (currentQuestionIndex > 0) {
-                currentQuestionIndex--;
-                showCurrentQuestion();
-            }
+            navigateTo(session.getCurrentIndex() - 1);
         }
 
         private void showNextQuestion() {
-            if (currentQuestionIndex < selectedWords.size() - 1) {
-                currentQuestionIndex++;
+            navigateTo(session.getCurrentIndex() + 1);
+        }
+
+        private void navigateTo(int index) {
+            long started = System.nanoTime();
+            ExamEvents.Navigation event = new ExamEvents.Navigation();
+            event.begin();
+            if (session.moveTo(index)) {
                 showCurrentQuestion();
+                checkpoint(session, library);
+                event.index = index;
+                event.commit();
+                NAVIGATION_LATENCY.recordSince(started);
             }
         }
 
@@ -477,35 +884,36 @@ class WordExamSystem extends JFrame {
         }
 
         private void submitExam() {
-            timer.cancel();
-
-            // 计算得分
-            int score = 0;
+            // 倒计时到期和手动提交可能先后触发，只提交一次
+            if (submitted) {
+                return;
+            }
+            submitted = true;
+            countdown.cancel();
+            long started = System.nanoTime();
+            ExamEvents.SubmitExam event = new ExamEvents.SubmitExam();
+            event.begin();
+
+            // 计算得分（只是比较十几个整数，直接在 EDT 上做），保存在后台线程进行
+            ExamSession.Result result = session.grade();
+            CompletableFuture<Integer> saved = UiTasks.supply(() -> saveResult(result));
             StringBuilder wrongAnswers = new StringBuilder();
             List<String> wrongWords = new ArrayList<>();
 
-            for (String word : selectedWords) {
-                int userAnswer = userAnswers.getOrDefault(word, -1);
-                List<String> options = generateOptions(word);
-                String correctMeaning = wordLibrary.get(word);
-
-                if (userAnswer != -1 && options.get(userAnswer).equals(correctMeaning)) {
-                    score++;
-                } else {
-                    wrongAnswers.append("\n单词: ").append(word)
-                            .append("\n正确释义: ").append(correctMeaning)
-                            .append("\n你的答案: ").append(userAnswer != -1 ? options.get(userAnswer) : "未作答")
-                            .append("\n");
-                    wrongWords.add(word + ": " + correctMeaning);
-                }
+            for (ExamSession.Answer wrong : result.wrongAnswers) {
+                wrongAnswers.append("\n单词: ").append(wrong.word)
+                        .append("\n正确释义: ").append(wrong.correctMeaning)
+                        .append("\n你的答案: ").append(wrong.userAnswer != null ? wrong.userAnswer : "未作答")
+                        .append("\n");
+                wrongWords.add(wrong.word + ": " + wrong.correctMeaning);
             }
 
             // 显示结果
             StringBuilder message = new StringBuilder();
             message.append("考试完成！\n\n")
-                    .append("总题数: ").append(selectedWords.size()).append("\n")
-                    .append("答对题数: ").append(score).append("\n")
-                    .append("得分: ").append(score * 10).append("/").append(selectedWords.size() * 10).append("\n\n");
+                    .append("总题数: ").append(result.questionCount).append("\n")
+                    .append("答对题数: ").append(result.correctCount).append("\n")
+                    .append("得分: ").append(result.score()).append("/").append(result.fullScore()).append("\n\n");
 
             if (wrongAnswers.length() > 0) {
                 message.append("错题分析:").append(wrongAnswers);
@@ -536,41 +944,77 @@ class WordExamSystem extends JFrame {
 
             // 关闭当前窗口
             dispose();
-
-            // 将成绩信息添加到排名列表
-            RankingManager.addScore(username, score * 10);
+            library.close();
+            event.username = session.getUsername();
+            event.score = result.score();
+            event.commit();
+            SUBMIT_LATENCY.recordSince(started);
+            Metrics.counter("exam.submitted").increment();
+
+            // 成绩保存完成后计数，所有登录窗口都交卷后显示排名
+            String username = session.getUsername();
+            UiTasks.whenDone(saved, rank -> submissionFinished(username), error -> {
+                JOptionPane.showMessageDialog(null, "保存成绩失败：" + error.getMessage(),
+                        "错误", JOptionPane.ERROR_MESSAGE);
+                submissionFinished(username);
+            });
         }
     }
 
-    // 排名管理类
-    static class RankingManager {
-        private static List<Map.Entry<String, Integer>> rankingList = new ArrayList<>();
-
-        public static void addScore(String username, int score) {
-            rankingList.add(new AbstractMap.SimpleEntry<>(username, score));
-            if (rankingList.size() == 3) {
-                showRanking();
-            }
+    // 一份成绩保存完成（或保存失败），在 EDT 上调用：检查点已删除，该用户可以重新登录考试；
+    // 所有登录窗口都交卷后显示一次排名，之后不再弹出
+    private static void submissionFinished(String username) {
+        ACTIVE_EXAMS.remove(username);
+        finishedSubmissions++;
+        if (finishedSubmissions == LOGIN_WINDOWS) {
+            showRanking(username);
         }
+    }
 
-        private static void showRanking() {
-            // 按分数降序排序
-            rankingList.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+    // 显示排名对话框；不在 EDT 上调用时转到 EDT 执行
+    static void showRanking(String username) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> showRanking(username));
+            return;
+        }
+        StringBuilder rankingMessage = new StringBuilder("考试排名：\n");
+        List<RankingManager.Entry> top = RANKING.top(RANKING_TOP_N);
+        for (int i = 0; i < top.size(); i++) {
+            RankingManager.Entry entry = top.get(i);
+            rankingMessage.append(i + 1).append(". ").append(entry.username).append(": ").append(entry.score).append("分\n");
+        }
+        rankingMessage.append("\n").append(username).append(" 当前排名: 第").append(RANKING.rankOf(username))
+                .append("名（共").append(RANKING.size()).append("名考生）");
 
-            StringBuilder rankingMessage = new StringBuilder("考试排名：\n");
-            for (int i = 0; i < rankingList.size(); i++) {
-                Map.Entry<String, Integer> entry = rankingList.get(i);
-                rankingMessage.append(i + 1).append(". ").append(entry.getKey()).append(": ").append(entry.getValue()).append("分\n");
-            }
+        JOptionPane.showMessageDialog(null, rankingMessage.toString(), "考试排名", JOptionPane.INFORMATION_MESSAGE);
+    }
 
-            JOptionPane.showMessageDialog(null, rankingMessage.toString(), "考试排名", JOptionPane.INFORMATION_MESSAGE);
+    private static void startServer(int port) {
+        ExamServer server = new ExamServer(CREDENTIALS, WordExamSystem::newSession, WordExamSystem::saveResult,
+                session -> checkpoint(session, DEFAULT_LIBRARY), ITEM_STATS, () -> LIBRARY.current().searchIndex,
+                EXAM_DURATION, TimeUnit.MINUTES);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.err.println("启动考试服务失败: " + e.getMessage());
+            System.exit(1);
         }
+        System.out.println("考试服务已启动: http://127.0.0.1:" + server.port()
+                + "（" + (VirtualThreads.supported() ? "虚拟线程" : "平台线程") + "）");
     }
 
     public static void main(String[] args) {
         System.setProperty("file.encoding", "UTF-8");
-        ExecutorService executorService = Executors.newFixedThreadPool(3);
-        for (int i = 0; i < 3; i++) {
+        // 无界面服务模式：java WordExamSystem --server [端口]，不探测 EDT，避免启动 AWT
+        if (args.length > 0 && args[0].equals("--server")) {
+            Metrics.start(Paths.get(METRICS_FILE), 60, 0);
+            startServer(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT);
+            return;
+        }
+        Metrics.start(Paths.get(METRICS_FILE), 60, 1000);
+        EdtWatchdog.install(EDT_STALL_MILLIS, TimeUnit.MILLISECONDS);
+        ExecutorService executorService = Executors.newFixedThreadPool(LOGIN_WINDOWS);
+        for (int i = 0; i < LOGIN_WINDOWS; i++) {
             executorService.submit(() -> SwingUtilities.invokeLater(() -> new WordExamSystem().setVisible(true)));
         }
         executorService.shutdown();
@@ -0,0 +1,47 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+// 界面异步执行层：耗时或可能阻塞的工作（读文件、出卷、写日志）放到后台线程，
+// 完成回调统一切回 EDT 执行，EDT 上只做界面更新
+final class UiTasks {
+    private static final Executor WORKERS = VirtualThreads.newPerTaskExecutor("ui-worker");
+    // 把任务投递到 EDT 的执行器
+    static final Executor EDT = UiTasks::onEdt;
+
+    private UiTasks() {
+    }
+
+    // 在后台线程执行 work
+    static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, WORKERS);
+    }
+
+    // 在后台线程执行 work，成功时在 EDT 上调用 onSuccess，失败时在 EDT 上调用 onError
+    static <T> void run(Supplier<T> work, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        whenDone(supply(work), onSuccess, onError);
+    }
+
+    // future 完成后在 EDT 上回调
+    static <T> void whenDone(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((value, error) -> {
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                onSuccess.accept(value);
+            }
+        }, EDT);
+    }
+
+    // 在 EDT 上执行；已在 EDT 上时直接执行
+    static void onEdt(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+        } else {
+            SwingUtilities.invokeLater(task);
+        }
+    }
+}
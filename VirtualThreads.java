@@ -0,0 +1,45 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 每个任务一个线程的执行器：运行时支持虚拟线程（JDK 21+）时使用虚拟线程，
+// 否则退回按需创建的平台守护线程池。通过反射查找，源码仍可在 JDK 17 下编译
+final class VirtualThreads {
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private VirtualThreads() {
+    }
+
+    // 当前运行时是否支持虚拟线程
+    static boolean supported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    // 创建执行器，name 用作平台线程的名字前缀
+    static ExecutorService newPerTaskExecutor(String name) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("创建虚拟线程执行器失败，改用平台线程: " + e.getMessage());
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
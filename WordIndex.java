@@ -0,0 +1,40 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// 单词索引：把单词库中的单词编号为 0..size()-1，供选题时按整数下标随机访问
+interface WordIndex {
+    // 单词数量
+    int size();
+
+    // 按编号取单词
+    String word(int id);
+
+    // 查找单词的编号，不存在时返回 -1
+    int idOf(String word);
+
+    // 基于内存单词库构建数组索引（只需在单词库加载后构建一次）
+    static WordIndex of(Map<String, String> wordLibrary) {
+        String[] words = wordLibrary.keySet().toArray(new String[0]);
+        Map<String, Integer> ids = new HashMap<>(words.length * 4 / 3 + 1);
+        for (int i = 0; i < words.length; i++) {
+            ids.put(words[i], i);
+        }
+        return new WordIndex() {
+            @Override
+            public int size() {
+                return words.length;
+            }
+
+            @Override
+            public String word(int id) {
+                return words[id];
+            }
+
+            @Override
+            public int idOf(String word) {
+                Integer id = ids.get(word);
+                return id == null ? -1 : id;
+            }
+        };
+    }
+}
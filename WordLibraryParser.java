@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// 文本单词库解析器，文件每行格式：单词,释义
+// 只按每行第一个逗号切分，释义中可以包含逗号。大文件按换行对齐切块后在 fork/join 线程池上并行解析
+final class WordLibraryParser {
+    // 小于这个大小的文件直接单线程解析
+    private static final int PARALLEL_THRESHOLD = 256 * 1024;
+    // 每个并行任务处理的最大字节数
+    private static final int CHUNK_BYTES = 1024 * 1024;
+
+    private WordLibraryParser() {
+    }
+
+    // 解析结果：单词表和有效行数，有效行数大于单词数说明有单词出现了不止一次
+    static final class Parsed {
+        final Map<String, String> library;
+        final int lines;
+
+        private Parsed(Map<String, String> library, int lines) {
+            this.library = library;
+            this.lines = lines;
+        }
+    }
+
+    // 解析文本单词库，同一单词出现多次时以文件中靠后的一行为准
+    static Map<String, String> parse(Path file) throws IOException {
+        return parse(file, ForkJoinPool.commonPool());
+    }
+
+    static Map<String, String> parse(Path file, ForkJoinPool pool) throws IOException {
+        return parse(read(file), pool).library;
+    }
+
+    static Parsed parse(byte[] text) {
+        return parse(text, ForkJoinPool.commonPool());
+    }
+
+    static Parsed parse(byte[] text, ForkJoinPool pool) {
+        ByteBuffer buffer = ByteBuffer.wrap(text);
+        int start = hasBom(text, 0) ? 3 : 0;
+        List<Chunk> chunks = text.length < PARALLEL_THRESHOLD
+                ? List.of(new ChunkTask(buffer, start, text.length).parseChunk())
+                : pool.invoke(new ChunkTask(buffer, start, text.length));
+
+        // 按块顺序合并到预先定好容量的 Map 中，保持“后出现的行覆盖先出现的行”
+        int total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.count;
+        }
+        Map<String, String> wordLibrary = new HashMap<>(Math.max(16, (int) (total / 0.75f) + 1));
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++) {
+                wordLibrary.put(chunk.words[i], chunk.meanings[i]);
+            }
+        }
+        return new Parsed(wordLibrary, total);
+    }
+
+    // 按文件中的顺序单线程解析 text 的 [from, to) 范围，两端必须是行首（或文本末尾）
+    static void parseLines(byte[] text, int from, int to, BiConsumer<String, String> entries) {
+        int start = hasBom(text, from) ? from + 3 : from;
+        Chunk chunk = new ChunkTask(ByteBuffer.wrap(text), start, Math.max(start, to)).parseChunk();
+        for (int i = 0; i < chunk.count; i++) {
+            entries.accept(chunk.words[i], chunk.meanings[i]);
+        }
+    }
+
+    // 把整个文件读入堆内存而不是映射：文本单词库会被编辑器原地改写，映射区间内的文件被截断时
+    // 访问映射页会触发 SIGBUS（表现为 InternalError），读入的数据则只是少了一截
+    static byte[] read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("单词库文件过大: " + size + " 字节");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读到文件末尾或读满为止
+            }
+            return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+        }
+    }
+
+    // 只有文件开头的 UTF-8 BOM 需要跳过
+    private static boolean hasBom(byte[] text, int from) {
+        return from == 0 && text.length >= 3
+                && (text[0] & 0xFF) == 0xEF
+                && (text[1] & 0xFF) == 0xBB
+                && (text[2] & 0xFF) == 0xBF;
+    }
+
+    // 一个块的解析结果
+    private static final class Chunk {
+        String[] words = new String[64];
+        String[] meanings = new String[64];
+        int count;
+
+        void add(String word, String meaning) {
+            if (count == words.length) {
+                words = Arrays.copyOf(words, count * 2);
+                meanings = Arrays.copyOf(meanings, count * 2);
+            }
+            words[count] = word;
+            meanings[count] = meaning;
+            count++;
+        }
+    }
+
+    // 解析 [start, end) 范围；范围过大时在中点附近的换行处一分为二
+    private static final class ChunkTask extends RecursiveTask<List<Chunk>> {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        ChunkTask(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Chunk> compute() {
+            if (end - start > CHUNK_BYTES) {
+                int split = nextLineStart(start + (end - start) / 2);
+                if (split > start && split < end) {
+                    ChunkTask left = new ChunkTask(buffer, start, split);
+                    ChunkTask right = new ChunkTask(buffer, split, end);
+                    left.fork();
+                    List<Chunk> rightChunks = right.compute();
+                    List<Chunk> chunks = new ArrayList<>(left.join());
+                    chunks.addAll(rightChunks);
+                    return chunks;
+                }
+            }
+            return List.of(parseChunk());
+        }
+
+        // 从 position 开始找到下一行的行首
+        private int nextLineStart(int position) {
+            for (int i = position; i < end; i++) {
+                if (buffer.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            return end;
+        }
+
+        // 手写的分隔符扫描：逐字节查找换行和每行第一个逗号，逗号和换行都是单字节 ASCII，
+        // 不会出现在 UTF-8 多字节字符内部
+        Chunk parseChunk() {
+            Chunk chunk = new Chunk();
+            byte[] scratch = new byte[256];
+            int lineStart = start;
+            while (lineStart < end) {
+                int comma = -1;
+                int lineEnd = lineStart;
+                while (lineEnd < end) {
+                    byte b = buffer.get(lineEnd);
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (b == ',' && comma < 0) {
+                        comma = lineEnd;
+                    }
+                    lineEnd++;
+                }
+
+                if (comma >= 0) {
+                    String meaning = decodeTrimmed(comma + 1, lineEnd, scratch);
+                    if (!meaning.isEmpty()) {
+                        chunk.add(decodeTrimmed(lineStart, comma, scratch), meaning);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return chunk;
+        }
+
+        // 去掉首尾空白（包括行尾的 \r）后按 UTF-8 解码，与 String.trim 的规则一致
+        private String decodeTrimmed(int from, int to, byte[] scratch) {
+            while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+                from++;
+            }
+            while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+                to--;
+            }
+            int length = to - from;
+            byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+            buffer.get(from, bytes, 0, length);
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// 单词库二进制快照：由文本单词库构建一次，之后通过 FileChannel.map 直接映射，
+// 查询时按需解码，启动时间和堆占用不随词库规模增长
+//
+// 文件格式（大端）：
+//   int magic, int version, int entryCount, int meaningCount, int blobLength
+//   int[entryCount + 1]   单词在 blob 中的偏移（按 UTF-8 字节序排序）
+//   int[entryCount]       每个单词对应的释义编号
+//   int[meaningCount + 1] 释义在 blob 中的偏移（去重后按 UTF-8 字节序排序）
+//   byte[blobLength]      UTF-8 编码的单词和释义
+final class WordLibrarySnapshot {
+    private static final int MAGIC = 0x574C5331; // "WLS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+    private final int meaningCount;
+    private final int wordOffsetsPos;
+    private final int entryMeaningsPos;
+    private final int meaningOffsetsPos;
+    private final int blobPos;
+
+    private WordLibrarySnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的单词库快照文件");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("不支持的单词库快照版本: " + buffer.getInt(4));
+        }
+        entryCount = buffer.getInt(8);
+        meaningCount = buffer.getInt(12);
+        int blobLength = buffer.getInt(16);
+        if (entryCount < 0 || meaningCount < 0 || blobLength < 0) {
+            throw new IOException("单词库快照文件头损坏");
+        }
+        long expected = HEADER_BYTES + (2L * entryCount + meaningCount + 2) * Integer.BYTES + blobLength;
+        if (expected != buffer.capacity()) {
+            throw new IOException("单词库快照文件长度不匹配");
+        }
+        wordOffsetsPos = HEADER_BYTES;
+        entryMeaningsPos = wordOffsetsPos + (entryCount + 1) * Integer.BYTES;
+        meaningOffsetsPos = entryMeaningsPos + entryCount * Integer.BYTES;
+        blobPos = meaningOffsetsPos + (meaningCount + 1) * Integer.BYTES;
+        validate(blobLength);
+    }
+
+    // 打开时检查偏移表和释义编号，损坏的快照在这里失败并触发重建，而不是在考试中途越界：
+    // 单词偏移从 0 开始递增，释义偏移接着单词偏移递增到 blobLength，释义编号都在 [0, meaningCount) 内
+    private void validate(int blobLength) throws IOException {
+        int previous = 0;
+        if (buffer.getInt(wordOffsetsPos) != 0) {
+            throw new IOException("单词库快照偏移表损坏");
+        }
+        for (int i = 0; i <= entryCount; i++) {
+            int offset = buffer.getInt(wordOffsetsPos + i * Integer.BYTES);
+            if (offset < previous) {
+                throw new IOException("单词库快照单词偏移表损坏: " + i);
+            }
+            previous = offset;
+        }
+        if (buffer.getInt(meaningOffsetsPos) != previous) {
+            throw new IOException("单词库快照偏移表损坏");
+        }
+        for (int i = 0; i <= meaningCount; i++) {
+            int offset = buffer.getInt(meaningOffsetsPos + i * Integer.BYTES);
+            if (offset < previous) {
+                throw new IOException("单词库快照释义偏移表损坏: " + i);
+            }
+            previous = offset;
+        }
+        if (previous != blobLength) {
+            throw new IOException("单词库快照偏移表与数据长度不符");
+        }
+        for (int i = 0; i < entryCount; i++) {
+            int meaningId = buffer.getInt(entryMeaningsPos + i * Integer.BYTES);
+            if (meaningId < 0 || meaningId >= meaningCount) {
+                throw new IOException("单词库快照释义编号超出范围: " + meaningId);
+            }
+        }
+    }
+
+    // 快照存在且不比文本单词库旧时可直接使用
+    static boolean isFresh(Path snapshot, Path text) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+        return !Files.exists(text)
+                || Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(text)) >= 0;
+    }
+
+    // 只读映射快照文件
+    static WordLibrarySnapshot open(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return new WordLibrarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // 把单词库写成快照：先写临时文件，再原子替换，避免读到写了一半的快照
+    static void write(Map<String, String> wordLibrary, Path snapshot) throws IOException {
+        int entryCount = wordLibrary.size();
+        byte[][] words = new byte[entryCount][];
+        byte[][] wordMeanings = new byte[entryCount][];
+        Integer[] order = new Integer[entryCount];
+        int n = 0;
+        for (Map.Entry<String, String> entry : wordLibrary.entrySet()) {
+            words[n] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            wordMeanings[n] = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            order[n] = n;
+            n++;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(words[a], words[b]));
+
+        // 释义去重并排序，单词只记录释义编号
+        byte[][] meanings = wordMeanings.clone();
+        Arrays.sort(meanings, Arrays::compareUnsigned);
+        int meaningCount = 0;
+        for (int i = 0; i < meanings.length; i++) {
+            if (meaningCount == 0 || !Arrays.equals(meanings[meaningCount - 1], meanings[i])) {
+                meanings[meaningCount++] = meanings[i];
+            }
+        }
+
+        long blobLength = 0;
+        for (byte[] word : words) {
+            blobLength += word.length;
+        }
+        for (int i = 0; i < meaningCount; i++) {
+            blobLength += meanings[i].length;
+        }
+        if (blobLength > Integer.MAX_VALUE - HEADER_BYTES - 2L * Integer.BYTES * (entryCount + meaningCount + 2)) {
+            throw new IOException("单词库过大，超出快照格式上限");
+        }
+
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entryCount);
+            out.writeInt(meaningCount);
+            out.writeInt((int) blobLength);
+
+            int offset = 0;
+            for (int i = 0; i < entryCount; i++) {
+                out.writeInt(offset);
+                offset += words[order[i]].length;
+            }
+            out.writeInt(offset);
+            for (int i = 0; i < entryCount; i++) {
+                out.writeInt(Arrays.binarySearch(meanings, 0, meaningCount, wordMeanings[order[i]], Arrays::compareUnsigned));
+            }
+            for (int i = 0; i < meaningCount; i++) {
+                out.writeInt(offset);
+                offset += meanings[i].length;
+            }
+            out.writeInt(offset);
+
+            for (int i = 0; i < entryCount; i++) {
+                out.write(words[order[i]]);
+            }
+            for (int i = 0; i < meaningCount; i++) {
+                out.write(meanings[i]);
+            }
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 单词数量
+    int size() {
+        return entryCount;
+    }
+
+    // 按编号取单词（编号即排序后的位置）
+    String word(int entry) {
+        return decode(wordOffsetsPos, entry);
+    }
+
+    // 按单词编号取释义
+    String meaningOf(int entry) {
+        return decode(meaningOffsetsPos, meaningIdOf(entry));
+    }
+
+    int meaningIdOf(int entry) {
+        return buffer.getInt(entryMeaningsPos + entry * Integer.BYTES);
+    }
+
+    // 二分查找单词编号，不存在时返回 -1
+    int find(String word) {
+        return search(wordOffsetsPos, entryCount, word.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 查询单词释义，不存在时返回 null
+    String get(String word) {
+        int entry = find(word);
+        return entry < 0 ? null : meaningOf(entry);
+    }
+
+    // 快照的只读 Map 视图，get/containsKey 走二分查找，遍历时逐条解码
+    Map<String, String> asMap() {
+        return new SnapshotMap();
+    }
+
+    // 单词索引，编号即快照中的排序位置
+    WordIndex wordIndex() {
+        return new WordIndex() {
+            @Override
+            public int size() {
+                return entryCount;
+            }
+
+            @Override
+            public String word(int id) {
+                return WordLibrarySnapshot.this.word(id);
+            }
+
+            @Override
+            public int idOf(String word) {
+                return find(word);
+            }
+        };
+    }
+
+    // 直接基于快照中去重后的释义表构建释义索引，无需把释义读入堆中
+    MeaningIndex meaningIndex() {
+        return new MeaningIndex() {
+            @Override
+            public int size() {
+                return meaningCount;
+            }
+
+            @Override
+            public String meaning(int id) {
+                return decode(meaningOffsetsPos, id);
+            }
+
+            @Override
+            public int idOf(String meaning) {
+                return search(meaningOffsetsPos, meaningCount, meaning.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private String decode(int offsetsPos, int index) {
+        int start = buffer.getInt(offsetsPos + index * Integer.BYTES);
+        int end = buffer.getInt(offsetsPos + (index + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(blobPos + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int search(int offsetsPos, int count, byte[] key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(offsetsPos, mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // 按无符号字节序比较映射区中的第 index 项与 key
+    private int compare(int offsetsPos, int index, byte[] key) {
+        int start = blobPos + buffer.getInt(offsetsPos + index * Integer.BYTES);
+        int length = blobPos + buffer.getInt(offsetsPos + (index + 1) * Integer.BYTES) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.toUnsignedInt(buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private final class SnapshotMap extends AbstractMap<String, String> {
+        @Override
+        public int size() {
+            return entryCount;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && find((String) key) >= 0;
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof String ? WordLibrarySnapshot.this.get((String) key) : null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public int size() {
+                    return entryCount;
+                }
+
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < entryCount;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (next >= entryCount) {
+                                throw new NoSuchElementException();
+                            }
+                            int entry = next++;
+                            return new SimpleImmutableEntry<>(word(entry), meaningOf(entry));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+// 单词库的写时复制存储：读者通过 current() 无锁取得当前版本，
+// 文本文件变化时后台线程重新读取并与当前版本比对，有变化才构建新版本并原子替换。
+// 重新读取时与上次的文本逐字节比较，只解析首尾相同部分之间改动过的那些行；改动超过一半、
+// 上次的文本未知或有单词重复出现时整体重新解析。解析之后写快照和重建各个编号索引仍是整库的开销。
+// 已经开始的考试持有旧版本的单词表，不受替换影响；旧版本在没有引用后由 GC 回收。
+// 编辑器保存一次文件常产生多个事件，监听线程等文件安静下来后才重新加载，文件大小和修改时间没变时不重新解析
+final class WordLibraryStore {
+    // 最后一个文件事件之后等待这么久没有新事件才重新加载
+    private static final long DEBOUNCE_MILLIS = 300;
+    // 改动的字节数超过文件的这个比例时整体并行解析更快
+    private static final double MAX_CHANGED_FRACTION = 0.5;
+
+    private final Path text;
+    private final Path snapshot;
+    private final AtomicReference<WordLibraryVersion> current;
+    private final List<BiConsumer<WordLibraryVersion, WordLibraryVersion>> swapListeners = new CopyOnWriteArrayList<>();
+    private Thread watcher;
+    // 当前版本解析时文本文件的大小和修改时间，由 this 保护；未知时为 null
+    private String loadedStamp;
+    // 当前版本对应的文本内容，用于下次只解析改动的行，由 this 保护；未知时为 null。
+    // 常驻一份文本文件大小的堆内存
+    private byte[] loadedText;
+    // loadedText 中每个单词只出现一次，此时删掉一行就是删掉这个单词
+    private boolean distinctWords;
+
+    WordLibraryStore(Path text, Path snapshot, WordLibraryVersion initial) {
+        this.text = text;
+        this.snapshot = snapshot;
+        this.current = new AtomicReference<>(initial);
+        this.loadedStamp = stampOf(text);
+    }
+
+    WordLibraryVersion current() {
+        return current.get();
+    }
+
+    // 注册版本替换回调，参数为（旧版本，新版本），在执行替换的线程上调用
+    void onSwap(BiConsumer<WordLibraryVersion, WordLibraryVersion> listener) {
+        swapListeners.add(listener);
+    }
+
+    // 重新读取文本文件；内容有变化时发布新版本并返回 true
+    synchronized boolean reload() {
+        String stamp = stampOf(text);
+        if (stamp == null || stamp.equals(loadedStamp)) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            bytes = WordLibraryParser.read(text);
+        } catch (IOException e) {
+            System.err.println("重新加载单词库失败，继续使用当前版本: " + e.getMessage());
+            return false;
+        }
+        if (!stamp.equals(stampOf(text))) {
+            // 读取期间文件又被改写，读到的可能是半个文件；改写会再产生文件事件，到时重新加载
+            return false;
+        }
+
+        long started = System.nanoTime();
+        WordLibraryVersion previous = current.get();
+        Changes changes = loadedText != null && distinctWords
+                ? Changes.ofChangedLines(loadedText, bytes, previous.library)
+                : null;
+        boolean distinct = true;
+        if (changes == null) {
+            WordLibraryParser.Parsed parsed = WordLibraryParser.parse(bytes);
+            changes = Changes.between(previous.library, parsed.library);
+            distinct = parsed.lines == parsed.library.size();
+        }
+        if (changes.latest.isEmpty()) {
+            // 编辑器保存时可能先截断文件，空文件不发布
+            return false;
+        }
+        loadedStamp = stamp;
+        loadedText = bytes;
+        distinctWords = distinct;
+        int added = changes.added;
+        int changed = changes.changed;
+        int removed = changes.removed;
+        if (added == 0 && changed == 0 && removed == 0) {
+            return false;
+        }
+        Map<String, String> latest = changes.latest;
+
+        // 单词集合未变时沿用旧的单词索引，选题权重可以原样保留
+        WordIndex sameWords = added == 0 && removed == 0 ? previous.wordIndex : null;
+        long number = previous.number + 1;
+        WordLibraryVersion next;
+        try {
+            WordLibrarySnapshot.write(latest, snapshot);
+            next = WordLibraryVersion.fromSnapshot(number, WordLibrarySnapshot.open(snapshot), sameWords);
+        } catch (IOException e) {
+            System.err.println("写入单词库快照失败，新版本仅保存在内存中: " + e.getMessage());
+            next = WordLibraryVersion.fromMap(number, latest, sameWords);
+        }
+        current.set(next);
+        Metrics.histogram("library.reload").recordSince(started);
+        Metrics.counter("library.versions").increment();
+        System.out.println("单词库已更新到版本 " + number + "：新增 " + added + "，修改 " + changed + "，删除 " + removed);
+        for (BiConsumer<WordLibraryVersion, WordLibraryVersion> listener : swapListeners) {
+            try {
+                listener.accept(previous, next);
+            } catch (RuntimeException e) {
+                System.err.println("单词库版本切换处理失败: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    // 一次重新加载的结果：新的单词表和相对当前版本新增、修改、删除的单词数
+    private static final class Changes {
+        final Map<String, String> latest;
+        final int added;
+        final int changed;
+        final int removed;
+
+        private Changes(Map<String, String> latest, int added, int changed, int removed) {
+            this.latest = latest;
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        // 整体解析出的新单词表与当前版本逐个比对
+        static Changes between(Map<String, String> previous, Map<String, String> latest) {
+            int added = 0;
+            int changed = 0;
+            for (Map.Entry<String, String> entry : latest.entrySet()) {
+                String old = previous.get(entry.getKey());
+                if (old == null) {
+                    added++;
+                } else if (!old.equals(entry.getValue())) {
+                    changed++;
+                }
+            }
+            return new Changes(latest, added, changed, previous.size() - (latest.size() - added));
+        }
+
+        // 去掉 before 和 after 相同的开头和结尾（都对齐到整行），只解析中间改动过的行：
+        // 旧文本中这些行的单词先删掉，新文本中这些行的单词再按顺序写入。before 中每个单词只出现一次，
+        // 新写入的单词在未改动的行里也出现时无法判断以哪一行为准，返回 null 由调用方整体解析；
+        // 改动过多时同样返回 null
+        static Changes ofChangedLines(byte[] before, byte[] after, Map<String, String> previous) {
+            int limit = Math.min(before.length, after.length);
+            int start = 0;
+            while (start < limit && before[start] == after[start]) {
+                start++;
+            }
+            while (start > 0 && before[start - 1] != '\n') {
+                start--;
+            }
+            int common = 0;
+            while (common < limit - start
+                    && before[before.length - 1 - common] == after[after.length - 1 - common]) {
+                common++;
+            }
+            int beforeEnd = before.length - common;
+            int afterEnd = after.length - common;
+            while (beforeEnd < before.length
+                    && !(isLineStart(before, beforeEnd, start) && isLineStart(after, afterEnd, start))) {
+                beforeEnd++;
+                afterEnd++;
+            }
+            if ((beforeEnd - start) + (afterEnd - start) > after.length * MAX_CHANGED_FRACTION) {
+                return null;
+            }
+
+            Map<String, String> removedLines = new HashMap<>();
+            WordLibraryParser.parseLines(before, start, beforeEnd, removedLines::put);
+            Map<String, String> addedLines = new HashMap<>();
+            boolean[] ambiguous = new boolean[1];
+            WordLibraryParser.parseLines(after, start, afterEnd, (word, meaning) -> {
+                if (addedLines.put(word, meaning) != null
+                        || (!removedLines.containsKey(word) && previous.containsKey(word))) {
+                    ambiguous[0] = true;
+                }
+            });
+            if (ambiguous[0]) {
+                return null;
+            }
+
+            int added = 0;
+            int changed = 0;
+            for (Map.Entry<String, String> entry : addedLines.entrySet()) {
+                String old = removedLines.get(entry.getKey());
+                if (old == null) {
+                    added++;
+                } else if (!old.equals(entry.getValue())) {
+                    changed++;
+                }
+            }
+            int removed = removedLines.size() - (addedLines.size() - added);
+            if (added == 0 && changed == 0 && removed == 0) {
+                return new Changes(previous, 0, 0, 0);
+            }
+            Map<String, String> latest = new HashMap<>(previous);
+            latest.keySet().removeAll(removedLines.keySet());
+            latest.putAll(addedLines);
+            return new Changes(latest, added, changed, removed);
+        }
+
+        private static boolean isLineStart(byte[] text, int position, int regionStart) {
+            return position == regionStart || text[position - 1] == '\n';
+        }
+    }
+
+    // 文件的大小和修改时间，文件不存在或读取失败时为 null
+    private static String stampOf(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // 启动后台守护线程监听单词库文本文件所在目录，文件被修改或重新创建时重新加载
+    synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        Path absolute = text.toAbsolutePath();
+        Path directory = absolute.getParent();
+        Path fileName = absolute.getFileName();
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("无法监听单词库文件: " + e.getMessage());
+            return;
+        }
+
+        watcher = new Thread(() -> {
+            try (WatchService service = watchService) {
+                boolean pending = false;
+                while (true) {
+                    // 有待处理的变化时只等一个去抖间隔，间隔内没有新事件就重新加载
+                    WatchKey key = pending ? service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS) : service.take();
+                    if (key == null) {
+                        pending = false;
+                        try {
+                            reload();
+                        } catch (Throwable e) {
+                            // 监听线程不能因为一次加载失败而退出
+                            System.err.println("重新加载单词库失败，继续使用当前版本: " + e);
+                        }
+                        continue;
+                    }
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (fileName.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            pending = true;
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("单词库文件监听异常: " + e.getMessage());
+            }
+        }, "word-library-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+}
@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+// 单词库的一个不可变版本：单词表和由它派生的各个索引捆在一起发布，
+// 读者取到一个版本后始终看到彼此一致的数据，单词库更新时整体换成新版本
+final class WordLibraryVersion {
+    // 版本号，从 1 开始，每次发布新版本加一
+    final long number;
+    final Map<String, String> library;
+    final WordIndex wordIndex;
+    final MeaningIndex meaningIndex;
+    // 前缀和释义检索索引，随版本一起构建，供 /search 查询
+    final LibrarySearchIndex searchIndex;
+    // 是否由快照文件映射而来；只有快照版本的释义编号与磁盘上的近邻表一致
+    final boolean snapshotBacked;
+
+    private WordLibraryVersion(long number, Map<String, String> library, WordIndex wordIndex,
+                               MeaningIndex meaningIndex, boolean snapshotBacked) {
+        this.number = number;
+        this.library = library;
+        this.wordIndex = wordIndex;
+        this.meaningIndex = meaningIndex;
+        this.searchIndex = LibrarySearchIndex.build(wordIndex, library);
+        this.snapshotBacked = snapshotBacked;
+    }
+
+    // 由快照构建；wordIndex 不为 null 时沿用（单词集合未变，选题权重无需重排）
+    static WordLibraryVersion fromSnapshot(long number, WordLibrarySnapshot snapshot, WordIndex wordIndex) {
+        return new WordLibraryVersion(number, snapshot.asMap(),
+                wordIndex != null ? wordIndex : snapshot.wordIndex(), snapshot.meaningIndex(), true);
+    }
+
+    // 快照不可用时由内存中的单词表构建，转成紧凑存储后原单词表即可丢弃
+    static WordLibraryVersion fromMap(long number, Map<String, String> library, WordIndex wordIndex) {
+        CompactWordLibrary compact = CompactWordLibrary.of(library);
+        return new WordLibraryVersion(number, compact.asMap(),
+                wordIndex != null ? wordIndex : compact.wordIndex(), compact.meaningIndex(), false);
+    }
+
+    // 读取文本单词库：快照不比文本旧时直接映射；快照缺失、过期、打不开或格式不对时删掉并从文本重建，
+    // 快照写不进去时退回由文本解析出的内存单词表。只有文本也读不出来时才抛出 IOException
+    static WordLibraryVersion load(long number, Path text, Path snapshot) throws IOException {
+        if (WordLibrarySnapshot.isFresh(snapshot, text)) {
+            try {
+                return fromSnapshot(number, WordLibrarySnapshot.open(snapshot), null);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("单词库快照损坏，从文本重建 " + snapshot + ": " + e.getMessage());
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        Map<String, String> parsed = WordLibraryParser.parse(text);
+        try {
+            WordLibrarySnapshot.write(parsed, snapshot);
+            return fromSnapshot(number, WordLibrarySnapshot.open(snapshot), null);
+        } catch (IOException e) {
+            System.err.println("写入单词库快照失败，仅加载到内存 " + snapshot + ": " + e.getMessage());
+            return fromMap(number, parsed, null);
+        }
+    }
+
+    int size() {
+        return library.size();
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// 紧凑单词库：按单词、按释义查编号与 HashMap 一致，含中文、补充平面字符和不存在的键。
+// 运行方式：javac -d out *.java test/*.java && java -cp out CompactWordLibraryTest
+final class CompactWordLibraryTest {
+    private static final String[] ALPHABET = {"a", "b", "z", "é", "中", "文", "😀", "𠀀"};
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        findsEveryWordAndMeaning();
+        rejectsAbsentKeys();
+        handlesEmptyAndSmallLibraries();
+        if (failures > 0) {
+            System.err.println(failures + " 项检查失败");
+            System.exit(1);
+        }
+        System.out.println("CompactWordLibraryTest 通过");
+    }
+
+    private static void findsEveryWordAndMeaning() {
+        Map<String, String> expected = randomLibrary(new Random(42), 5000);
+        CompactWordLibrary compact = CompactWordLibrary.of(expected);
+        check(compact.size() == expected.size(), "单词数一致");
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            int id = compact.idOf(entry.getKey());
+            if (id < 0) {
+                check(false, "找不到单词 " + entry.getKey());
+                continue;
+            }
+            check(compact.word(id).equals(entry.getKey()), "编号还原出原单词 " + entry.getKey());
+            int meaningId = compact.meaningIdOf(id);
+            check(compact.meaning(meaningId).equals(entry.getValue()), "释义一致 " + entry.getKey());
+            check(compact.meaningIdOf(entry.getValue()) == meaningId, "按释义查到同一编号 " + entry.getValue());
+            check(entry.getValue().equals(compact.asMap().get(entry.getKey())), "asMap 取值一致 " + entry.getKey());
+            seen.add(compact.word(id));
+        }
+        check(seen.size() == expected.size(), "编号互不相同");
+    }
+
+    private static void rejectsAbsentKeys() {
+        Random random = new Random(7);
+        Map<String, String> expected = randomLibrary(random, 2000);
+        CompactWordLibrary compact = CompactWordLibrary.of(expected);
+        Set<String> meanings = new HashSet<>(expected.values());
+        for (int i = 0; i < 20000; i++) {
+            String key = randomString(random, 1, 10);
+            check((compact.idOf(key) >= 0) == expected.containsKey(key), "单词存在性一致 " + key);
+            check((compact.meaningIdOf(key) >= 0) == meanings.contains(key), "释义存在性一致 " + key);
+        }
+        // 已有单词的前缀、延长和落单的代理字符
+        for (String word : new ArrayList<>(expected.keySet()).subList(0, 200)) {
+            String prefix = word.substring(0, word.length() - 1);
+            check((compact.idOf(prefix) >= 0) == expected.containsKey(prefix), "前缀存在性一致 " + prefix);
+            check((compact.idOf(word + "a") >= 0) == expected.containsKey(word + "a"), "延长后存在性一致 " + word);
+            check(compact.idOf(word + '\uD800') < 0, "落单的代理字符查不到 " + word);
+            check(compact.meaningIdOf(expected.get(word) + "；") < 0, "多出分隔符的释义查不到 " + word);
+        }
+        check(compact.idOf("") < 0, "空串查不到");
+        check(compact.meaningIdOf("") < 0, "空释义查不到");
+    }
+
+    private static void handlesEmptyAndSmallLibraries() {
+        CompactWordLibrary empty = CompactWordLibrary.of(new HashMap<>());
+        check(empty.size() == 0, "空单词库");
+        check(empty.idOf("apple") < 0, "空单词库查不到单词");
+        check(empty.meaningIdOf("苹果") < 0, "空单词库查不到释义");
+
+        Map<String, String> small = new HashMap<>();
+        small.put("apple", "苹果");
+        small.put("app", "应用；程序");
+        small.put("b?", "问?");
+        CompactWordLibrary compact = CompactWordLibrary.of(small);
+        check(compact.idOf("app") >= 0 && compact.idOf("apple") >= 0, "互为前缀的单词都能查到");
+        check(compact.idOf("appl") < 0 && compact.idOf("ap") < 0 && compact.idOf("apples") < 0, "中间前缀和延长查不到");
+        check(compact.meaningIdOf("应用；程序") == compact.meaningIdOf(compact.idOf("app")), "多片段释义能查到");
+        check(compact.meaningIdOf("应用") < 0 && compact.meaningIdOf("应用；") < 0, "释义前缀查不到");
+        // 与 String.getBytes 一致，落单的代理字符按 '?' 比较
+        check(compact.idOf("b\uDC00") == compact.idOf("b?"), "落单的代理字符按 ? 查单词");
+        check(compact.meaningIdOf("问\uD800") == compact.meaningIdOf("问?"), "落单的代理字符按 ? 查释义");
+    }
+
+    private static Map<String, String> randomLibrary(Random random, int size) {
+        Map<String, String> library = new HashMap<>();
+        List<String> meanings = new ArrayList<>();
+        while (library.size() < size) {
+            String meaning;
+            if (!meanings.isEmpty() && random.nextInt(4) == 0) {
+                meaning = meanings.get(random.nextInt(meanings.size()));
+            } else {
+                meaning = randomString(random, 1, 4);
+                for (int segments = random.nextInt(3); segments > 0; segments--) {
+                    meaning += "；" + randomString(random, 1, 4);
+                }
+                meanings.add(meaning);
+            }
+            library.put(randomString(random, 1, 10), meaning);
+        }
+        return library;
+    }
+
+    private static String randomString(Random random, int minLength, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.err.println("失败: " + message);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 考试日志的回放与截断：正常回放、末尾半条记录、文件中部损坏、关闭后追加。
+// 运行方式：javac -d out *.java test/*.java && java -cp out ExamJournalTest
+final class ExamJournalTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("exam-journal-test");
+        try {
+            replaysAllRecords(directory.resolve("replay.bin"));
+            truncatesTornTail(directory.resolve("torn.bin"));
+            preservesDataAfterCorruption(directory.resolve("corrupt.bin"));
+            failsAppendsAfterClose(directory.resolve("closed.bin"));
+        } finally {
+            deleteRecursively(directory);
+        }
+        if (failures > 0) {
+            System.err.println(failures + " 项检查失败");
+            System.exit(1);
+        }
+        System.out.println("ExamJournalTest 通过");
+    }
+
+    private static void replaysAllRecords(Path file) throws Exception {
+        writeRecords(file, 5);
+        List<ExamSession.Result> replayed = new ArrayList<>();
+        ExamJournal.open(file, replayed::add).close();
+        check(replayed.size() == 5, "回放全部 5 条记录，实际 " + replayed.size());
+        ExamSession.Result third = replayed.get(2);
+        check(third.username.equals("user2"), "用户名按原样回放");
+        check(third.correctCount == 2 && third.answers.get(1).dwellMillis == 1200, "作答和停留时间按原样回放");
+    }
+
+    private static void truncatesTornTail(Path file) throws Exception {
+        writeRecords(file, 3);
+        long valid = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // 声明 100 字节负载但只写了 4 字节：崩溃时写了一半的记录
+            ByteBuffer torn = ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(7);
+            torn.flip();
+            channel.write(torn);
+        }
+        List<ExamSession.Result> replayed = new ArrayList<>();
+        ExamJournal.open(file, replayed::add).close();
+        check(replayed.size() == 3, "半条记录之前的 3 条全部回放，实际 " + replayed.size());
+        check(Files.size(file) == valid, "末尾半条记录被截掉");
+        check(damagedFiles(file).isEmpty(), "末尾半条记录不另存");
+    }
+
+    private static void preservesDataAfterCorruption(Path file) throws Exception {
+        writeRecords(file, 4);
+        long size = Files.size(file);
+        long recordBytes = size / 4;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 改坏第二条记录负载中的一个字节，长度字段保持完整
+            long offset = recordBytes + 2 * Integer.BYTES + 3;
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) (b.get(0) ^ 0x5A));
+            b.rewind();
+            channel.write(b, offset);
+        }
+        List<ExamSession.Result> replayed = new ArrayList<>();
+        ExamJournal journal = ExamJournal.open(file, replayed::add);
+        check(replayed.size() == 1, "损坏记录之前的 1 条回放，实际 " + replayed.size());
+        List<Path> damaged = damagedFiles(file);
+        check(damaged.size() == 1, "损坏处之后的数据另存为 damaged 文件");
+        if (damaged.size() == 1) {
+            check(Files.size(damaged.get(0)) == size - recordBytes, "另存的数据包含损坏记录及其后全部记录");
+        }
+        // 截断后新的追加接在最后一条完整记录之后，重新打开可以回放
+        journal.append(result("late", 2)).get(5, TimeUnit.SECONDS);
+        journal.close();
+        replayed.clear();
+        ExamJournal.open(file, replayed::add).close();
+        check(replayed.size() == 2 && replayed.get(1).username.equals("late"), "截断后追加的记录可以回放");
+    }
+
+    private static void failsAppendsAfterClose(Path file) throws Exception {
+        ExamJournal journal = ExamJournal.open(file, r -> { });
+        journal.close();
+        CompletableFuture<Void> late = journal.append(result("late", 0));
+        try {
+            late.get(5, TimeUnit.SECONDS);
+            check(false, "关闭后的追加应当失败");
+        } catch (ExecutionException e) {
+            check(e.getCause() instanceof IOException, "关闭后的追加以 IOException 失败");
+        }
+    }
+
+    private static void writeRecords(Path file, int count) throws Exception {
+        ExamJournal journal = ExamJournal.open(file, r -> { });
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            written.add(journal.append(result("user" + i, i % 3)));
+        }
+        for (CompletableFuture<Void> future : written) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        journal.close();
+    }
+
+    private static ExamSession.Result result(String username, int correct) {
+        List<ExamSession.Answer> answers = new ArrayList<>();
+        List<ExamSession.Answer> wrong = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            boolean isCorrect = i < correct;
+            ExamSession.Answer answer = new ExamSession.Answer("word" + i, "释义" + i, isCorrect ? 0 : 1,
+                    isCorrect ? "释义" + i : "干扰" + i, isCorrect, 1000 + 200 * i);
+            answers.add(answer);
+            if (!isCorrect) {
+                wrong.add(answer);
+            }
+        }
+        return new ExamSession.Result(username, 1_000L, 2_000L, correct, answers, wrong);
+    }
+
+    private static List<Path> damagedFiles(Path file) throws IOException {
+        List<Path> damaged = new ArrayList<>();
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            files.filter(p -> p.getFileName().toString().startsWith(file.getFileName() + ".damaged-"))
+                    .forEach(damaged::add);
+        }
+        return damaged;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.err.println("失败: " + message);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
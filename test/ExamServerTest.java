@@ -0,0 +1,142 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 考试服务：到时未交卷的会话自动交卷，截止时间已过的恢复会话登录后立即自动交卷，重复登录拿到同一个 token，
+// /search 按前缀和释义查单词，/stats 输出停留时间。
+// 运行方式：javac -d out *.java test/*.java && java -cp out ExamServerTest
+final class ExamServerTest {
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([0-9a-f]+)\"");
+
+    private static int failures;
+
+    private static final Map<String, String> LIBRARY = new HashMap<>();
+    private static final BlockingQueue<ExamSession.Result> SUBMITTED = new LinkedBlockingQueue<>();
+    private static final ItemStatistics STATISTICS = new ItemStatistics();
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < 30; i++) {
+            LIBRARY.put("word" + i, "释义" + i);
+        }
+        WordIndex wordIndex = WordIndex.of(LIBRARY);
+        MeaningIndex meaningIndex = MeaningIndex.of(LIBRARY);
+        Path users = Files.createTempFile("exam-server-test", ".txt");
+        Files.write(users, "alice,123456\nbob,123456\ncarol,123456\n".getBytes(StandardCharsets.UTF_8));
+        // bob 的检查点已过截止时间，恢复后应立即自动交卷
+        ExamServer server = new ExamServer(CredentialIndex.load(users), username -> {
+            SplittableRandom random = new SplittableRandom(username.hashCode());
+            if (username.equals("bob")) {
+                long now = System.currentTimeMillis();
+                return ExamSession.restore(username, LIBRARY,
+                        ExamSession.randomPaper(LIBRARY, wordIndex, meaningIndex, 10, random),
+                        new int[10], 0, now - 60_000, now - 1_000);
+            }
+            return ExamSession.create(username, LIBRARY, wordIndex, meaningIndex, 10, random);
+        }, result -> {
+            STATISTICS.record(result);
+            SUBMITTED.add(result);
+            return 1;
+        }, session -> { }, STATISTICS, () -> LibrarySearchIndex.build(wordIndex, LIBRARY), 1, TimeUnit.SECONDS);
+        server.start(0);
+        try {
+            expiresUnsubmittedSession(server);
+            expiresResumedSessionPastDeadline(server);
+            reusesTokenOnRepeatedLogin(server);
+            searchesLibrary(server);
+            reportsDwellTimes(server);
+        } finally {
+            server.stop();
+            Files.deleteIfExists(users);
+        }
+        if (failures > 0) {
+            System.err.println(failures + " 项检查失败");
+            System.exit(1);
+        }
+        System.out.println("ExamServerTest 通过");
+    }
+
+    private static void expiresUnsubmittedSession(ExamServer server) throws Exception {
+        String first = token(post(server, "/login", "username=alice&password=123456"));
+        check(first != null, "登录成功");
+        ExamSession.Result result = SUBMITTED.poll(5, TimeUnit.SECONDS);
+        check(result != null && result.username.equals("alice"), "到时自动交卷");
+        check(server.liveSessions() == 0, "自动交卷后会话移除");
+        check(post(server, "/submit", "token=" + first).startsWith("404"), "自动交卷后不能再交卷");
+        String second = token(post(server, "/login", "username=alice&password=123456"));
+        check(second != null && !second.equals(first), "自动交卷后重新登录开始新考试");
+        check(post(server, "/submit", "token=" + second).startsWith("200"), "新考试可以交卷");
+        SUBMITTED.clear();
+    }
+
+    private static void expiresResumedSessionPastDeadline(ExamServer server) throws Exception {
+        String response = post(server, "/login", "username=bob&password=123456");
+        // 自动交卷可能抢在登录响应之前完成，此时登录返回 409
+        check(response.startsWith("200") || response.startsWith("409"), "恢复过期会话的登录: " + response);
+        ExamSession.Result result = SUBMITTED.poll(5, TimeUnit.SECONDS);
+        check(result != null && result.username.equals("bob"), "截止时间已过的恢复会话立即自动交卷");
+    }
+
+    private static void reusesTokenOnRepeatedLogin(ExamServer server) throws Exception {
+        String first = token(post(server, "/login", "username=carol&password=123456"));
+        String second = token(post(server, "/login", "username=carol&password=123456"));
+        check(first != null && first.equals(second), "重复登录拿到同一个 token");
+        check(post(server, "/login", "username=carol&password=wrong").startsWith("401"), "密码错误返回 401");
+        check(post(server, "/submit", "token=" + first).startsWith("200"), "交卷成功");
+    }
+
+    private static void searchesLibrary(ExamServer server) throws Exception {
+        check(get(server, "/search?prefix=word2&limit=5").equals("200 {\"count\":11,\"words\":[\"word2\",\"word20\",\"word21\",\"word22\",\"word23\"]}"),
+                "按前缀检索");
+        check(get(server, "/search?meaning=%E9%87%8A%E4%B9%897").equals("200 {\"words\":[\"word7\"]}"), "按释义检索");
+        check(get(server, "/search").startsWith("400"), "缺少检索参数返回 400");
+    }
+
+    private static void reportsDwellTimes(ExamServer server) throws Exception {
+        String overall = get(server, "/stats");
+        check(overall.startsWith("200") && overall.contains("\"meanDwellMillis\":") && overall.contains("\"medianDwellMillis\":"),
+                "总体统计包含停留时间: " + overall);
+        String single = get(server, "/stats?word=" + STATISTICS.hardest(1, 0).get(0).word);
+        check(single.startsWith("200") && single.contains("\"meanDwellMillis\":"), "单词统计包含平均停留时间: " + single);
+    }
+
+    private static String get(ExamServer server, String pathAndQuery) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + pathAndQuery)).build();
+        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return response.statusCode() + " " + response.body();
+    }
+
+    // 返回 "状态码 响应体"
+    private static String post(ExamServer server, String path, String form) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return response.statusCode() + " " + response.body();
+    }
+
+    private static String token(String response) {
+        Matcher matcher = TOKEN.matcher(response);
+        return response.startsWith("200") && matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.err.println("失败: " + message);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+// 检索索引：前缀检索和释义反查与逐个扫描的结果一致，释义词条的大小写折叠不受默认语言环境影响。
+// 运行方式：javac -d out *.java test/*.java && java -cp out LibrarySearchIndexTest
+final class LibrarySearchIndexTest {
+    private static final String[] LETTERS = {"a", "b", "c", "ab", "é", "中"};
+    private static final String[] TOKENS = {"苹果", "水果", "红色", "Apple", "fruit", "甜", "树"};
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        matchesPrefixScan();
+        matchesMeaningScan();
+        foldsCaseIndependentOfLocale();
+        if (failures > 0) {
+            System.err.println(failures + " 项检查失败");
+            System.exit(1);
+        }
+        System.out.println("LibrarySearchIndexTest 通过");
+    }
+
+    private static void matchesPrefixScan() {
+        Map<String, String> library = randomLibrary(new Random(7), 3000);
+        WordIndex words = WordIndex.of(library);
+        LibrarySearchIndex index = LibrarySearchIndex.build(words, library);
+        TreeSet<String> sorted = new TreeSet<>(library.keySet());
+        for (String prefix : new String[] {"", "a", "ab", "b中", "é", "中中", "zzz", "abcabcabc"}) {
+            List<String> expected = new ArrayList<>();
+            for (String word : sorted.tailSet(prefix)) {
+                if (!word.startsWith(prefix)) {
+                    break;
+                }
+                expected.add(word);
+            }
+            check(index.countPrefix(prefix) == expected.size(), "前缀计数 " + prefix);
+            check(index.wordsWithPrefix(prefix, Integer.MAX_VALUE).equals(expected), "前缀检索 " + prefix);
+            check(index.wordsWithPrefix(prefix, 5).equals(expected.subList(0, Math.min(5, expected.size()))),
+                    "前缀检索只返回前 limit 个 " + prefix);
+        }
+        check(index.wordsWithPrefix("a", 0).isEmpty(), "limit 为 0 时返回空");
+    }
+
+    private static void matchesMeaningScan() {
+        Map<String, String> library = randomLibrary(new Random(11), 3000);
+        WordIndex words = WordIndex.of(library);
+        LibrarySearchIndex index = LibrarySearchIndex.build(words, library);
+        String[] queries = {"苹果", "水果；红色", "apple, 甜", "FRUIT", "树/苹果/水果", "不存在", "；，"};
+        for (String query : queries) {
+            List<String> wanted = LibrarySearchIndex.tokens(query);
+            List<String> expected = new ArrayList<>();
+            for (int id = 0; id < words.size() && !wanted.isEmpty(); id++) {
+                if (LibrarySearchIndex.tokens(library.get(words.word(id))).containsAll(wanted)) {
+                    expected.add(words.word(id));
+                }
+            }
+            check(index.wordsForMeaning(query, Integer.MAX_VALUE).equals(expected), "释义反查 " + query);
+            check(index.wordsForMeaning(query, 3).equals(expected.subList(0, Math.min(3, expected.size()))),
+                    "释义反查只返回前 limit 个 " + query);
+        }
+        String word = words.word(words.size() / 2);
+        check(index.wordsForMeaning(library.get(word), Integer.MAX_VALUE).contains(word), "完整释义反查到原单词");
+    }
+
+    private static void foldsCaseIndependentOfLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            Map<String, String> library = new HashMap<>();
+            library.put("title", "TITLE；标题");
+            LibrarySearchIndex index = LibrarySearchIndex.build(WordIndex.of(library), library);
+            check(LibrarySearchIndex.tokens("TITLE").equals(List.of("title")), "土耳其语环境下 I 折叠为 i");
+            check(index.wordsForMeaning("title", 10).equals(List.of("title")), "土耳其语环境下按小写词条反查");
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    // 单词由 LETTERS 拼成，释义由 TOKENS 中随机几个词条用不同分隔符连接
+    private static Map<String, String> randomLibrary(Random random, int size) {
+        String[] separators = {"；", ";", "，", ", ", "、", "/"};
+        Map<String, String> library = new HashMap<>();
+        while (library.size() < size) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                word.append(LETTERS[random.nextInt(LETTERS.length)]);
+            }
+            StringBuilder meaning = new StringBuilder(TOKENS[random.nextInt(TOKENS.length)]);
+            int extra = random.nextInt(3);
+            for (int i = 0; i < extra; i++) {
+                meaning.append(separators[random.nextInt(separators.length)]).append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            library.put(word.toString(), meaning.toString());
+        }
+        return library;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.err.println("失败: " + message);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// 排名：每个用户只以最好成绩占一个名次，前 N 名不重复，同分同名次，并发记录后计数一致。
+// 运行方式：javac -d out *.java test/*.java && java -cp out RankingTest
+final class RankingTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        keepsBestScorePerUser();
+        ranksTiesTogether();
+        staysConsistentUnderConcurrency();
+        if (failures > 0) {
+            System.err.println(failures + " 项检查失败");
+            System.exit(1);
+        }
+        System.out.println("RankingTest 通过");
+    }
+
+    private static void keepsBestScorePerUser() {
+        RankingManager ranking = new RankingManager(100);
+        check(ranking.record("alice", 60) == 1, "第一份成绩排第 1");
+        check(ranking.record("bob", 80) == 1, "bob 更高，排第 1");
+        check(ranking.rankOf("alice") == 2, "alice 降到第 2");
+        check(ranking.record("alice", 40) == 2, "较低的成绩不改变名次");
+        check(ranking.record("alice", 90) == 1, "提高成绩后升到第 1");
+        check(ranking.rankOf("bob") == 2, "bob 降到第 2");
+        check(ranking.size() == 2, "两名考生只占两个名次，实际 " + ranking.size());
+        List<RankingManager.Entry> top = ranking.top(10);
+        check(top.size() == 2, "前 10 名中每人只出现一次，实际 " + top.size());
+        check(top.get(0).username.equals("alice") && top.get(0).score == 90, "第 1 名是 alice 的最好成绩");
+        check(top.get(1).username.equals("bob") && top.get(1).score == 80, "第 2 名是 bob");
+        check(ranking.rankOf("carol") == -1, "没有成绩的用户名次为 -1");
+    }
+
+    private static void ranksTiesTogether() {
+        RankingManager ranking = new RankingManager(100);
+        ranking.record("a", 70);
+        ranking.record("b", 70);
+        ranking.record("c", 50);
+        check(ranking.rankOf("a") == 1 && ranking.rankOf("b") == 1, "同分同名次");
+        check(ranking.rankOf("c") == 3, "同分之后的名次跳过并列人数");
+        check(ranking.top(3).get(0).username.equals("a"), "同分时先取得成绩的排在前面");
+        ranking.record("c", 150);
+        check(ranking.rankOf("c") == 1 && ranking.rankOf("a") == 2, "超出上限的分数按上限计入");
+    }
+
+    private static void staysConsistentUnderConcurrency() throws InterruptedException {
+        RankingManager ranking = new RankingManager(100);
+        int users = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int round = 0; round <= 10; round++) {
+                    for (int u = 0; u < users; u++) {
+                        ranking.record("user" + u, round * 10);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        check(ranking.size() == users, "并发记录后考生数为 " + users + "，实际 " + ranking.size());
+        List<RankingManager.Entry> top = ranking.top(users * 2);
+        Set<String> names = new HashSet<>();
+        for (RankingManager.Entry entry : top) {
+            names.add(entry.username);
+            check(entry.score == 100, "每人保留最好成绩 100，" + entry.username + " 为 " + entry.score);
+        }
+        check(top.size() == users && names.size() == users, "排名中每人恰好一项");
+        check(ranking.rankOf("user7") == 1, "全部同分时都是第 1 名");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.err.println("失败: " + message);
+        }
+    }
+}